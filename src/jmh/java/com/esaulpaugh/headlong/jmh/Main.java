@@ -1,7 +1,11 @@
 package com.esaulpaugh.headlong.jmh;
 
+import com.esaulpaugh.headlong.jmh.abi.MeasureBigIntegerEncode;
 import com.esaulpaugh.headlong.jmh.abi.MeasureFunction;
+import com.esaulpaugh.headlong.jmh.abi.MeasureKeccakBatch;
 import com.esaulpaugh.headlong.jmh.abi.MeasurePadding;
+import com.esaulpaugh.headlong.jmh.abi.MeasureParallelEncode;
+import com.esaulpaugh.headlong.jmh.abi.MeasureTrustedEncode;
 import com.esaulpaugh.headlong.jmh.rlp.MeasureKeyValuePairSort;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.runner.Runner;
@@ -13,9 +17,13 @@ public class Main {
 
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
+                .include(MeasureBigIntegerEncode.class.getSimpleName())
                 .include(MeasureFunction.class.getSimpleName())
+                .include(MeasureKeccakBatch.class.getSimpleName())
                 .include(MeasureKeyValuePairSort.class.getSimpleName())
                 .include(MeasurePadding.class.getSimpleName())
+                .include(MeasureParallelEncode.class.getSimpleName())
+                .include(MeasureTrustedEncode.class.getSimpleName())
                 .warmupForks(1)
                 .warmupIterations(1)
                 .forks(1)
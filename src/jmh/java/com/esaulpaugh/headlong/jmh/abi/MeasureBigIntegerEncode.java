@@ -0,0 +1,69 @@
+/*
+   Copyright 2018 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.jmh.abi;
+
+import com.esaulpaugh.headlong.abi.EncodePlan;
+import com.esaulpaugh.headlong.abi.Tuple;
+import com.esaulpaugh.headlong.abi.TupleType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+@State(Scope.Benchmark)
+public class MeasureBigIntegerEncode {
+
+    private static final TupleType PRICES = TupleType.parse("(uint256[])");
+
+    /** Bit length of the generated values: wei-denominated prices, 128-bit amounts, and full-width hashes. */
+    @Param({ "60", "128", "256" })
+    public int bits;
+
+    private Tuple args;
+    private ByteBuffer dest;
+    private final EncodePlan plan = new EncodePlan();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random r = new Random(0x5eed);
+        final BigInteger[] prices = new BigInteger[256];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = new BigInteger(bits, r);
+        }
+        args = Tuple.of((Object) prices);
+        dest = ByteBuffer.allocate(PRICES.measureEncodedLength(args));
+    }
+
+    @Benchmark
+    @Fork(value = 1, warmups = 1)
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(iterations = 1)
+    public void encode_uint256_array(Blackhole blackhole) {
+        dest.clear();
+        blackhole.consume(PRICES.encode(args, dest, plan));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.jmh.abi;
+
+import com.joemelsha.crypto.hash.Keccak256;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+
+@State(Scope.Thread)
+public class MeasureKeccakBatch {
+
+    private static final int COUNT = 1024;
+
+    @Param({ "20", "64" })
+    int len;
+
+    byte[] in;
+    final byte[] out = new byte[COUNT * Keccak256.DIGEST_LEN];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        in = new byte[COUNT * len];
+        new Random(System.nanoTime()).nextBytes(in);
+    }
+
+    @Benchmark
+    @Fork(value = 1, warmups = 1)
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public void scalar(Blackhole blackhole) {
+        for (int i = 0; i < COUNT; i++) {
+            Keccak256.hash(in, i * len, len, out, i * Keccak256.DIGEST_LEN);
+        }
+        blackhole.consume(out);
+    }
+
+    @Benchmark
+    @Fork(value = 1, warmups = 1)
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public void batch(Blackhole blackhole) {
+        Keccak256.hashAll(in, 0, len, COUNT, out, 0);
+        blackhole.consume(out);
+    }
+}
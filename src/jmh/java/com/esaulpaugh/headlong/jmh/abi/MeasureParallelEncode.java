@@ -0,0 +1,82 @@
+/*
+   Copyright 2018 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.jmh.abi;
+
+import com.esaulpaugh.headlong.abi.ArrayType;
+import com.esaulpaugh.headlong.abi.Tuple;
+import com.esaulpaugh.headlong.abi.TupleType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+@State(Scope.Benchmark)
+public class MeasureParallelEncode {
+
+    private static final TupleType BATCH = TupleType.parse("(uint256[],(address,bytes)[])");
+
+    /** Number of elements in each array; 100,000 yields a payload of roughly 20 MB. */
+    @Param({ "10000", "100000" })
+    public int size;
+
+    private Tuple args;
+    private ByteBuffer dest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random r = new Random(0x5eed);
+        final BigInteger[] prices = new BigInteger[size];
+        final Tuple[] calls = new Tuple[size];
+        for (int i = 0; i < size; i++) {
+            prices[i] = new BigInteger(128, r);
+            final byte[] data = new byte[4 + 32 * r.nextInt(5)];
+            r.nextBytes(data);
+            calls[i] = Tuple.of(new BigInteger(160, r), data);
+        }
+        args = Tuple.of(prices, calls);
+        dest = ByteBuffer.allocate(BATCH.measureEncodedLength(args));
+    }
+
+    @Benchmark
+    @Fork(value = 1, warmups = 1)
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(iterations = 1)
+    public void encode_sequential(Blackhole blackhole) {
+        dest.clear();
+        blackhole.consume(BATCH.encode(args, dest));
+    }
+
+    @Benchmark
+    @Fork(value = 1, warmups = 1)
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(iterations = 1)
+    public void encode_parallel(Blackhole blackhole) {
+        dest.clear();
+        blackhole.consume(BATCH.encodeParallel(args, dest, ForkJoinPool.commonPool(), ArrayType.PARALLEL_ENCODE_THRESHOLD));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+   Copyright 2018 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.jmh.abi;
+
+import com.esaulpaugh.headlong.abi.Function;
+import com.esaulpaugh.headlong.abi.Tuple;
+import com.esaulpaugh.headlong.util.Strings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigInteger;
+
+@State(Scope.Benchmark)
+public class MeasureTrustedEncode {
+
+    private Function f;
+    private Tuple args;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        f = new Function("sam(bytes,bool,uint256[],string[],(address,uint64)[])");
+        final BigInteger[] uints = new BigInteger[32];
+        final String[] strings = new String[16];
+        final Tuple[] tuples = new Tuple[16];
+        for (int i = 0; i < 32; i++) {
+            uints[i] = BigInteger.valueOf(i).shiftLeft(200);
+        }
+        for (int i = 0; i < 16; i++) {
+            strings[i] = "the quick brown fox jumps over the lazy dog #" + i;
+            tuples[i] = Tuple.of(BigInteger.valueOf(i).shiftLeft(152), (long) i);
+        }
+        args = Tuple.of(Strings.decode("dave", Strings.UTF_8), true, uints, strings, tuples);
+    }
+
+    @Benchmark
+    @Fork(value = 1, warmups = 1)
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(iterations = 1)
+    public void encode_call(Blackhole blackhole) {
+        blackhole.consume(f.encodeCall(args));
+    }
+
+    @Benchmark
+    @Fork(value = 1, warmups = 1)
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(iterations = 1)
+    public void encode_call_trusted(Blackhole blackhole) {
+        blackhole.consume(f.encodeCallTrusted(args));
+    }
+}
@@ -60,11 +60,11 @@ public final class ABIJSON {
     public static ABIObject parseABIObject(JsonObject object) {
         return EVENT.equals(getString(object, TYPE))
                 ? parseEvent(object)
-                : parseFunction(object, Function.newDefaultDigest());
+                : parseFunction(object, Function.defaultDigest());
     }
 
     public static List<Function> parseFunctions(String arrayJson) {
-        return parseFunctions(arrayJson, Function.newDefaultDigest());
+        return parseFunctions(arrayJson, Function.defaultDigest());
     }
 
     public static List<Function> parseFunctions(String arrayJson, MessageDigest digest) {
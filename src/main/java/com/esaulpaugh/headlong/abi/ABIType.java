@@ -16,6 +16,7 @@
 package com.esaulpaugh.headlong.abi;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
 
 import static com.esaulpaugh.headlong.abi.UnitType.UNIT_LENGTH_BYTES;
 
@@ -93,6 +94,29 @@ public abstract class ABIType<J> {
      */
     public abstract int validate(Object value);
 
+    /**
+     * Validates {@code value} and, if this type is dynamic and {@code plan} is non-null, records in {@code plan} the byte
+     * lengths of dynamic sub-values for later use by {@link #encodeTail(Object, ByteBuffer, EncodePlan)}.
+     *
+     * @param value an object of type J
+     * @param plan  the plan in which to record byte lengths, or {@code null}
+     * @return the byte length of the ABI encoding of {@code value}
+     */
+    int validate(Object value, EncodePlan plan) {
+        return validate(value);
+    }
+
+    /**
+     * Like {@link #validate(Object, EncodePlan)} but without any checks, for values already known to be valid.
+     *
+     * @param value an object of type J
+     * @param plan  the plan in which to record byte lengths
+     * @return the byte length of the ABI encoding of {@code value}
+     */
+    int measure(Object value, EncodePlan plan) {
+        return byteLength(dynamic ? value : null);
+    }
+
     int encodeHead(Object value, ByteBuffer dest, int nextOffset) {
         if (!dynamic) {
             encodeTail(value, dest);
@@ -105,6 +129,16 @@ public abstract class ABIType<J> {
         throw new UnsupportedOperationException();
     }
 
+    /** Like {@link #encodeTail(Object, ByteBuffer)} but reads offsets from a plan populated by {@link #validate(Object, EncodePlan)}. */
+    void encodeTail(Object value, ByteBuffer dest, EncodePlan plan) {
+        encodeTail(value, dest);
+    }
+
+    /** Like {@link #encodeTail(Object, ByteBuffer, EncodePlan)} but writes to a digest or channel through a {@link ByteSink}. */
+    void encodeTail(Object value, ByteSink sink, EncodePlan plan) {
+        encodeHead(value, sink.reserve(byteLength(value)), 0);
+    }
+
     /**
      * Decodes the data at the buffer's current position according to this {@link ABIType}.
      *
@@ -115,6 +149,27 @@ public abstract class ABIType<J> {
      */
     abstract J decode(ByteBuffer buffer, byte[] unitBuffer);
 
+    /**
+     * Like {@link #decode(ByteBuffer, byte[])} but, if {@code uint256} is true, decodes values of unsigned
+     * {@link BigIntegerType}s as {@link com.esaulpaugh.headlong.abi.util.Uint256} instead of {@link java.math.BigInteger}.
+     *
+     * @param buffer     the buffer containing the encoded data
+     * @param unitBuffer a buffer of length {@link UnitType#UNIT_LENGTH_BYTES} in which to store intermediate values
+     * @param uint256    whether to decode unsigned big integers as {@code Uint256}
+     * @return the decoded value
+     */
+    Object decode(ByteBuffer buffer, byte[] unitBuffer, boolean uint256) {
+        return decode(buffer, unitBuffer);
+    }
+
+    /**
+     * Like {@link #decode(ByteBuffer, byte[], boolean)} but, if {@code pool} is non-null, decodes large arrays of
+     * dynamic elements in parallel.
+     */
+    Object decode(ByteBuffer buffer, byte[] unitBuffer, boolean uint256, ForkJoinPool pool) {
+        return decode(buffer, unitBuffer, uint256);
+    }
+
     /**
      * Parses and validates a string representation of J. Not supported by {@link ArrayType}, {@link TupleType}.
      *
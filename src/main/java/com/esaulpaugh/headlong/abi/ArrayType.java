@@ -15,6 +15,7 @@
 */
 package com.esaulpaugh.headlong.abi;
 
+import com.esaulpaugh.headlong.abi.util.Uint256;
 import com.esaulpaugh.headlong.util.Integers;
 import com.esaulpaugh.headlong.util.Strings;
 
@@ -22,6 +23,10 @@ import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import static com.esaulpaugh.headlong.abi.UnitType.UNIT_LENGTH_BYTES;
@@ -42,9 +47,17 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
     static final Class<String> STRING_CLASS = String.class;
     static final String STRING_ARRAY_CLASS_NAME = String[].class.getName();
 
-    private static final IntType ARRAY_LENGTH_TYPE = new IntType("int32", Integer.SIZE, false);
+    private static final Class<Uint256[]> UINT256_ARRAY_CLASS = Uint256[].class;
+
+    static final IntType ARRAY_LENGTH_TYPE = new IntType("int32", Integer.SIZE, false);
     private static final int ARRAY_LENGTH_BYTE_LEN = UNIT_LENGTH_BYTES;
 
+    /** The minimum number of dynamic elements for which a parallel decode is attempted. */
+    public static final int PARALLEL_DECODE_THRESHOLD = 1024;
+    /** The default minimum number of elements for which a parallel encode is attempted. */
+    public static final int PARALLEL_ENCODE_THRESHOLD = 1024;
+    private static final int PARALLEL_LEAF_SIZE = 128;
+
     static final int DYNAMIC_LENGTH = -1;
 
     final E elementType;
@@ -52,6 +65,8 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
     private final boolean isString;
 
     private final String arrayClassName;
+    /* the Uint256 counterpart of clazz, e.g. Uint256[][] for uint256[][]; null if the base type is not an unsigned BigIntegerType */
+    private final Class<?> uint256Class;
 
     ArrayType(String canonicalType, Class<J> clazz, boolean dynamic, E elementType, int length, String arrayClassName) {
         super(canonicalType, clazz, dynamic);
@@ -59,6 +74,17 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
         this.length = length;
         this.arrayClassName = arrayClassName;
         this.isString = clazz == STRING_CLASS;
+        this.uint256Class = uint256ClassFor(elementType);
+    }
+
+    private static Class<?> uint256ClassFor(ABIType<?> elementType) {
+        switch (elementType.typeCode()) {
+        case TYPE_CODE_BIG_INTEGER: return ((BigIntegerType) elementType).unsigned ? UINT256_ARRAY_CLASS : null;
+        case TYPE_CODE_ARRAY:
+            final Class<?> c = ((ArrayType<?, ?>) elementType).uint256Class;
+            return c != null ? Array.newInstance(c, 0).getClass() : null;
+        default: return null;
+        }
     }
 
     public E getElementType() {
@@ -87,11 +113,14 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
      * LOG_2_UNIT_LENGTH_BYTES == 5
      * x << 5 == x * 32
      *
-     * @param value the value to measure
+     * @param value the value to measure. {@code null} if not available, in which case this type must be static
      * @return the length in bytes of this array when encoded
      */
     @Override
     int byteLength(Object value) {
+        if(value == null) {
+            return staticByteLength();
+        }
         final int len;
         switch (elementType.typeCode()) {
         case TYPE_CODE_BOOLEAN: len = ((boolean[]) value).length * UNIT_LENGTH_BYTES; break;
@@ -120,6 +149,12 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
                 : len + (elements.length * UNIT_LENGTH_BYTES); // 32 bytes per offset
     }
 
+    private int staticByteLength() {
+        return elementType.typeCode() == TYPE_CODE_BYTE
+                ? Integers.roundLengthUp(length, UNIT_LENGTH_BYTES)
+                : length * elementType.byteLength(null);
+    }
+
     private int staticByteLengthPacked() {
         if(length != DYNAMIC_LENGTH) {
             return length * elementType.byteLengthPacked(null);
@@ -158,6 +193,16 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
         return ((byte[]) decodeIfString(value)).length;
     }
 
+    /** Converts a string only once, queueing its bytes in {@code plan} (if any) for the encoder. */
+    private int byteCount(Object value, EncodePlan plan) {
+        if(isString && plan != null) {
+            final byte[] bytes = Strings.decode((String) value, UTF_8);
+            plan.addString(bytes);
+            return bytes.length;
+        }
+        return byteCount(value);
+    }
+
     Object decodeIfString(Object value) {
         return !isString ? value : Strings.decode((String) value, UTF_8);
     }
@@ -168,18 +213,38 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
 
     @Override
     public int validate(final Object value) {
+        return validate(value, null);
+    }
+
+    @Override
+    void validateClass(Object value) {
+        if(uint256Class == null || !uint256Class.isInstance(value)) {
+            super.validateClass(value);
+        }
+    }
+
+    @Override
+    int validate(final Object value, final EncodePlan plan) {
         validateClass(value);
 
+        if(isParallel(value, plan)) {
+            return validateParallel((Object[]) value, plan);
+        }
+
         final int staticLen;
         switch (elementType.typeCode()) {
         case TYPE_CODE_BOOLEAN: staticLen = checkLength(((boolean[]) value).length, value) * UNIT_LENGTH_BYTES; break;
-        case TYPE_CODE_BYTE: staticLen = Integers.roundLengthUp(checkLength(byteCount(value), value), UNIT_LENGTH_BYTES); break;
+        case TYPE_CODE_BYTE: staticLen = Integers.roundLengthUp(checkLength(byteCount(value, plan), value), UNIT_LENGTH_BYTES); break;
         case TYPE_CODE_INT: staticLen = validateIntArray((int[]) value); break;
         case TYPE_CODE_LONG: staticLen = validateLongArray((long[]) value); break;
-        case TYPE_CODE_BIG_INTEGER: staticLen = validateBigIntegerArray((BigInteger[]) value); break;
+        case TYPE_CODE_BIG_INTEGER:
+            staticLen = value instanceof Uint256[]
+                    ? validateUint256Array((Uint256[]) value)
+                    : validateBigIntegerArray((BigInteger[]) value);
+            break;
         case TYPE_CODE_BIG_DECIMAL: staticLen = validateBigDecimalArray((BigDecimal[]) value); break;
         case TYPE_CODE_ARRAY:
-        case TYPE_CODE_TUPLE: staticLen = validateObjectArray((Object[]) value); break;
+        case TYPE_CODE_TUPLE: staticLen = validateObjectArray((Object[]) value, plan); break;
         default: throw new Error();
         }
         // arrays with variable number of elements get +32 for the array length
@@ -188,6 +253,30 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
                 : staticLen;
     }
 
+    @Override
+    int measure(Object value, EncodePlan plan) {
+        if(!dynamic) {
+            return staticByteLength();
+        }
+        if(!elementType.dynamic) {
+            return isString
+                    ? ARRAY_LENGTH_BYTE_LEN + Integers.roundLengthUp(byteCount(value, plan), UNIT_LENGTH_BYTES)
+                    : byteLength(value);
+        }
+        final Object[] arr = (Object[]) value;
+        final int len = arr.length;
+        final int slot = plan.reserve(len);
+        int byteLength = len * UNIT_LENGTH_BYTES; // 32 bytes per offset
+        for (int i = 0; i < len; i++) {
+            int elementLen = elementType.measure(arr[i], plan);
+            plan.set(slot + i, elementLen);
+            byteLength += elementLen;
+        }
+        return length == DYNAMIC_LENGTH
+                ? ARRAY_LENGTH_BYTE_LEN + byteLength
+                : byteLength;
+    }
+
     private int validateIntArray(final int[] arr) {
         final IntType intType = (IntType) elementType;
         final int len = arr.length;
@@ -233,6 +322,21 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
         return len * UNIT_LENGTH_BYTES;
     }
 
+    private int validateUint256Array(Uint256[] arr) {
+        final int len = arr.length;
+        checkLength(len, arr);
+        BigIntegerType bigIntegerType = (BigIntegerType) elementType;
+        int i = 0;
+        try {
+            for ( ; i < len; i++) {
+                bigIntegerType.validateUint256(arr[i]);
+            }
+        } catch (IllegalArgumentException iae) {
+            throw abiException(iae, i);
+        }
+        return len * UNIT_LENGTH_BYTES;
+    }
+
     private int validateBigDecimalArray(BigDecimal[] arr) {
         final int len = arr.length;
         checkLength(len, arr);
@@ -257,12 +361,24 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
     }
 
     /** For arrays of arrays or arrays of tuples only. */
-    private int validateObjectArray(Object[] arr) {
+    private int validateObjectArray(Object[] arr, EncodePlan plan) {
         final int len = arr.length;
         checkLength(len, arr);
-        int byteLength = !elementType.dynamic ? 0 : len * UNIT_LENGTH_BYTES; // when dynamic, 32 bytes per offset
+        if(!elementType.dynamic) {
+            int byteLength = 0;
+            for (int i = 0; i < len; i++) {
+                byteLength += elementType.validate(arr[i]);
+            }
+            return byteLength;
+        }
+        int byteLength = len * UNIT_LENGTH_BYTES; // 32 bytes per offset
+        final int slot = plan != null ? plan.reserve(len) : -1;
         for (int i = 0; i < len; i++) {
-            byteLength += elementType.validate(arr[i]);
+            int elementLen = elementType.validate(arr[i], plan);
+            if(slot >= 0) {
+                plan.set(slot + i, elementLen);
+            }
+            byteLength += elementLen;
         }
         return byteLength;
     }
@@ -283,6 +399,77 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
         encodeArrayTail(decodeIfString(value), dest);
     }
 
+    @Override
+    void encodeTail(Object value, ByteBuffer dest, EncodePlan plan) {
+        if(isParallel(value, plan)) {
+            if(length == DYNAMIC_LENGTH) {
+                Encoding.insertInt(((Object[]) value).length, dest);
+            }
+            plan.nextParallel().encode(dest);
+            return;
+        }
+        if(!elementType.dynamic) {
+            encodeArrayTail(isString ? plan.nextString() : value, dest);
+            return;
+        }
+        final Object[] objects = (Object[]) value;
+        final int len = objects.length;
+        if(length == DYNAMIC_LENGTH) {
+            Encoding.insertInt(len, dest);
+        }
+        final int slot = plan.consume(len);
+        int nextOffset = len * Encoding.OFFSET_LENGTH_BYTES;
+        for (int i = 0; i < len; i++) {
+            nextOffset = Encoding.insertOffset(nextOffset, dest, plan.get(slot + i));
+        }
+        for (Object object : objects) {
+            elementType.encodeTail(object, dest, plan);
+        }
+    }
+
+    @Override
+    void encodeTail(Object value, ByteSink sink, EncodePlan plan) {
+        if(!dynamic) {
+            final int byteLen = byteLength(value);
+            if(byteLen <= ByteSink.CAPACITY) {
+                encodeTail(value, sink.reserve(byteLen));
+                return;
+            }
+        }
+        final Object v = isString && plan != null ? plan.nextString() : decodeIfString(value);
+        if(length == DYNAMIC_LENGTH) {
+            Encoding.insertInt(Array.getLength(v), sink.reserve(UNIT_LENGTH_BYTES));
+        }
+        encodeElements(v, sink, plan);
+    }
+
+    /** Writes the elements' encoding without the length prefix. {@code plan} may be null if the elements are static. */
+    void encodeElements(Object v, ByteSink sink, EncodePlan plan) {
+        switch (elementType.typeCode()) {
+        case TYPE_CODE_BOOLEAN: for (boolean e : (boolean[]) v) sink.reserve(UNIT_LENGTH_BYTES).put(e ? BooleanType.BOOLEAN_TRUE : BooleanType.BOOLEAN_FALSE); return;
+        case TYPE_CODE_BYTE: sink.putPadded((byte[]) v); return;
+        case TYPE_CODE_INT: for (int e : (int[]) v) Encoding.insertInt(e, sink.reserve(UNIT_LENGTH_BYTES)); return;
+        case TYPE_CODE_LONG: for (long e : (long[]) v) Encoding.insertInt(e, sink.reserve(UNIT_LENGTH_BYTES)); return;
+        case TYPE_CODE_BIG_INTEGER:
+        case TYPE_CODE_BIG_DECIMAL:
+        case TYPE_CODE_ARRAY:
+        case TYPE_CODE_TUPLE:
+            final Object[] objects = (Object[]) v;
+            if(elementType.dynamic) {
+                final int slot = plan.consume(objects.length);
+                int nextOffset = objects.length * Encoding.OFFSET_LENGTH_BYTES;
+                for (int i = 0; i < objects.length; i++) {
+                    nextOffset = Encoding.insertOffset(nextOffset, sink.reserve(Encoding.OFFSET_LENGTH_BYTES), plan.get(slot + i));
+                }
+            }
+            for (Object object : objects) {
+                elementType.encodeTail(object, sink, plan);
+            }
+            return;
+        default: throw new Error();
+        }
+    }
+
     private void insert(Supplier<Integer> supplyLength, Runnable insert, ByteBuffer dest) {
         if(length == DYNAMIC_LENGTH) {
             Encoding.insertInt(supplyLength.get(), dest);
@@ -296,7 +483,11 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
         case TYPE_CODE_BYTE: byte[] b = (byte[])v; insert(() -> b.length, () -> Encoding.insertBytesPadded(b, dest), dest); return;
         case TYPE_CODE_INT: int[] i = (int[])v; insert(() -> i.length, () -> insertInts(i, dest), dest); return;
         case TYPE_CODE_LONG: long[] j = (long[])v; insert(() -> j.length, () -> insertLongs(j, dest), dest); return;
-        case TYPE_CODE_BIG_INTEGER: BigInteger[] bi = (BigInteger[])v; insert(() -> bi.length, () -> Encoding.insertBigIntegers(bi, UNIT_LENGTH_BYTES, dest), dest); return;
+        case TYPE_CODE_BIG_INTEGER:
+            if(v instanceof Uint256[]) {
+                Uint256[] u = (Uint256[])v; insert(() -> u.length, () -> insertUint256s(u, dest), dest); return;
+            }
+            BigInteger[] bi = (BigInteger[])v; insert(() -> bi.length, () -> Encoding.insertBigIntegers(bi, UNIT_LENGTH_BYTES, dest), dest); return;
         case TYPE_CODE_BIG_DECIMAL: BigDecimal[] bd = (BigDecimal[])v; insert(() -> bd.length, () -> Encoding.insertBigDecimals(bd, UNIT_LENGTH_BYTES, dest), dest); return;
         case TYPE_CODE_ARRAY:  // note that type for String[] has elementType.typeCode() == TYPE_CODE_ARRAY
         case TYPE_CODE_TUPLE:
@@ -321,6 +512,12 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
         }
     }
 
+    private static void insertUint256s(Uint256[] arr, ByteBuffer dest) {
+        for (Uint256 e : arr) {
+            e.put(dest);
+        }
+    }
+
     private static void insertBooleans(boolean[] bools, ByteBuffer dest) {
         for (boolean e : bools) {
             dest.put(e ? BooleanType.BOOLEAN_TRUE : BooleanType.BOOLEAN_FALSE);
@@ -342,23 +539,73 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
     @Override
     @SuppressWarnings("unchecked")
     J decode(ByteBuffer bb, byte[] unitBuffer) {
+        return (J) decode(bb, unitBuffer, false);
+    }
+
+    @Override
+    Object decode(ByteBuffer bb, byte[] unitBuffer, boolean uint256) {
+        return decode(bb, unitBuffer, uint256, null);
+    }
+
+    @Override
+    Object decode(ByteBuffer bb, byte[] unitBuffer, boolean uint256, ForkJoinPool pool) {
         final int arrayLen = length == DYNAMIC_LENGTH
                 ? ARRAY_LENGTH_TYPE.decode(bb, unitBuffer)
                 : length;
 
         switch (elementType.typeCode()) {
-        case TYPE_CODE_BOOLEAN: return (J) decodeBooleanArray(bb, arrayLen, unitBuffer);
-        case TYPE_CODE_BYTE: return (J) decodeByteArray(bb, arrayLen);
-        case TYPE_CODE_INT: return (J) decodeIntArray((IntType) elementType, bb, arrayLen, unitBuffer);
-        case TYPE_CODE_LONG: return (J) decodeLongArray((LongType) elementType, bb, arrayLen, unitBuffer);
-        case TYPE_CODE_BIG_INTEGER: return (J) decodeBigIntegerArray((BigIntegerType) elementType, bb, arrayLen, unitBuffer);
-        case TYPE_CODE_BIG_DECIMAL: return (J) decodeBigDecimalArray((BigDecimalType) elementType, bb, arrayLen, unitBuffer);
+        case TYPE_CODE_BOOLEAN: return decodeBooleanArray(bb, arrayLen, unitBuffer);
+        case TYPE_CODE_BYTE: return decodeByteArray(bb, arrayLen);
+        case TYPE_CODE_INT: return decodeIntArray((IntType) elementType, bb, arrayLen);
+        case TYPE_CODE_LONG: return decodeLongArray((LongType) elementType, bb, arrayLen);
+        case TYPE_CODE_BIG_INTEGER:
+            return uint256 && uint256Class != null
+                    ? decodeUint256Array((BigIntegerType) elementType, bb, arrayLen)
+                    : decodeBigIntegerArray((BigIntegerType) elementType, bb, arrayLen, unitBuffer);
+        case TYPE_CODE_BIG_DECIMAL: return decodeBigDecimalArray((BigDecimalType) elementType, bb, arrayLen, unitBuffer);
         case TYPE_CODE_ARRAY:
-        case TYPE_CODE_TUPLE: return (J) decodeObjectArray(arrayLen, bb, unitBuffer);
+        case TYPE_CODE_TUPLE: return decodeObjectArray(arrayLen, bb, unitBuffer, uint256, pool);
         default: throw new Error();
         }
     }
 
+    /**
+     * Decodes the array encoded at the buffer's current position one element at a time, passing each element to
+     * {@code action} as soon as it is decoded, so that memory use does not grow with the length of the array. Primitive
+     * elements are boxed. Leaves the buffer's position at the end of the array's encoding.
+     *
+     * @param bb        the buffer containing the encoded array
+     * @param action    the action to perform on each element, in order
+     * @throws IllegalArgumentException if the elements are bytes or characters, or the encoding is invalid
+     */
+    public void forEachElement(ByteBuffer bb, Consumer<Object> action) {
+        forEachElement(bb, action, newUnitBuffer());
+    }
+
+    void forEachElement(ByteBuffer bb, Consumer<Object> action, byte[] unitBuffer) {
+        if(elementType.typeCode() == TYPE_CODE_BYTE) {
+            throw new IllegalArgumentException("can't stream elements of " + canonicalType);
+        }
+        final int arrayLen = length == DYNAMIC_LENGTH
+                ? ARRAY_LENGTH_TYPE.decode(bb, unitBuffer)
+                : length;
+        if(!elementType.dynamic) {
+            for (int i = 0; i < arrayLen; i++) {
+                action.accept(elementType.decode(bb, unitBuffer));
+            }
+        } else {
+            final int start = bb.position();
+            int end = start + arrayLen * Encoding.OFFSET_LENGTH_BYTES; // position after the heads, for empty arrays
+            for (int i = 0; i < arrayLen; i++) {
+                bb.position(start + i * Encoding.OFFSET_LENGTH_BYTES);
+                bb.position(start + Encoding.OFFSET_TYPE.decode(bb, unitBuffer));
+                action.accept(elementType.decode(bb, unitBuffer));
+                end = bb.position();
+            }
+            bb.position(end);
+        }
+    }
+
     private static boolean[] decodeBooleanArray(ByteBuffer bb, int arrayLen, byte[] unitBuffer) {
         boolean[] booleans = new boolean[arrayLen]; // elements are false by default
         final int booleanOffset = UNIT_LENGTH_BYTES - Byte.BYTES;
@@ -386,18 +633,18 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
         return encodeIfString(out);
     }
 
-    private static int[] decodeIntArray(IntType intType, ByteBuffer bb, int arrayLen, byte[] unitBuffer) {
+    private static int[] decodeIntArray(IntType intType, ByteBuffer bb, int arrayLen) {
         int[] ints = new int[arrayLen];
         for (int i = 0; i < arrayLen; i++) {
-            ints[i] = decodeBigIntElement(intType, bb, unitBuffer).intValue();
+            ints[i] = (int) intType.decodePrimitive(bb);
         }
         return ints;
     }
 
-    private static long[] decodeLongArray(LongType longType, ByteBuffer bb, int arrayLen, byte[] unitBuffer) {
+    private static long[] decodeLongArray(LongType longType, ByteBuffer bb, int arrayLen) {
         long[] longs = new long[arrayLen];
         for (int i = 0; i < arrayLen; i++) {
-            longs[i] = decodeBigIntElement(longType, bb, unitBuffer).longValue();
+            longs[i] = longType.decodePrimitive(bb);
         }
         return longs;
     }
@@ -410,6 +657,14 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
         return bigInts;
     }
 
+    private static Uint256[] decodeUint256Array(BigIntegerType bigIntegerType, ByteBuffer bb, int arrayLen) {
+        Uint256[] uints = new Uint256[arrayLen];
+        for (int i = 0; i < arrayLen; i++) {
+            uints[i] = bigIntegerType.decodeUint256(bb);
+        }
+        return uints;
+    }
+
     private static BigDecimal[] decodeBigDecimalArray(BigDecimalType bigDecimalType, ByteBuffer bb, int arrayLen, byte[] unitBuffer) {
         BigDecimal[] bigDecs = new BigDecimal[arrayLen];
         final int scale = bigDecimalType.scale;
@@ -426,18 +681,26 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
         return bi;
     }
 
-    private Object[] decodeObjectArray(int len, ByteBuffer bb, byte[] unitBuffer) {
-        Object[] dest = (Object[]) Array.newInstance(elementType.clazz, len); // reflection ftw
+    private Object[] decodeObjectArray(int len, ByteBuffer bb, byte[] unitBuffer, boolean uint256, ForkJoinPool pool) {
+        final Class<?> componentType = uint256 && uint256Class != null
+                ? uint256Class.getComponentType()
+                : elementType.clazz;
+        Object[] dest = (Object[]) Array.newInstance(componentType, len); // reflection ftw
         if(!this.dynamic || !elementType.dynamic) {
             for (int i = 0; i < len; i++) {
-                dest[i] = elementType.decode(bb, unitBuffer);
+                dest[i] = elementType.decode(bb, unitBuffer, uint256, pool);
             }
         } else {
 //            final int index = bb.position(); // *** save this value here if you want to support lenient mode below
+            final int start = bb.position();
             int[] offsets = new int[len];
             for (int i = 0; i < len; i++) {
                 offsets[i] = Encoding.OFFSET_TYPE.decode(bb, unitBuffer);
             }
+            if(pool != null && len >= PARALLEL_DECODE_THRESHOLD) {
+                decodeParallel(bb, start, offsets, dest, uint256, pool);
+                return dest;
+            }
             for (int i = 0; i < len; i++) {
                 if (offsets[i] > 0) {
                     /* OPERATES IN STRICT MODE; see https://github.com/ethereum/solidity/commit/3d1ca07e9b4b42355aa9be5db5c00048607986d1 */
@@ -445,13 +708,224 @@ public final class ArrayType<E extends ABIType<?>, J> extends ABIType<J> {
 //                        System.err.println(ArrayType.class.getName() + " setting " + bb.position() + " to " + (index + offset) + ", offset=" + offset);
 //                        bb.position(index + offset); // lenient
 //                    }
-                    dest[i] = elementType.decode(bb, unitBuffer);
+                    dest[i] = elementType.decode(bb, unitBuffer, uint256, pool);
                 }
             }
         }
         return dest;
     }
 
+    /**
+     * Decodes each element from its own view of the buffer at {@code start + offsets[i]}, then checks that every element
+     * begins where the previous one ends, as a sequential (strict mode) decode would require.
+     */
+    private void decodeParallel(ByteBuffer bb, int start, int[] offsets, Object[] dest, boolean uint256, ForkJoinPool pool) {
+        final ParallelDecode pd = new ParallelDecode(bb, start, offsets, dest, uint256, pool);
+        invoke(pool, pd.new Range(0, offsets.length));
+        int pos = bb.position();
+        for (int i = 0; i < offsets.length; i++) {
+            if(offsets[i] > 0) {
+                if(start + offsets[i] != pos) {
+                    throw new IllegalArgumentException("illegal offset at index " + i + ": " + offsets[i] + " != " + (pos - start));
+                }
+                pos = pd.ends[i];
+            }
+        }
+        bb.position(pos);
+    }
+
+    private final class ParallelDecode {
+
+        private final ByteBuffer bb;
+        private final int start;
+        private final int[] offsets;
+        private final int[] ends;
+        private final Object[] dest;
+        private final boolean uint256;
+        private final ForkJoinPool pool;
+
+        ParallelDecode(ByteBuffer bb, int start, int[] offsets, Object[] dest, boolean uint256, ForkJoinPool pool) {
+            this.bb = bb;
+            this.start = start;
+            this.offsets = offsets;
+            this.ends = new int[offsets.length];
+            this.dest = dest;
+            this.uint256 = uint256;
+            this.pool = pool;
+        }
+
+        void decode(int from, int to) {
+            final ByteBuffer view = bb.duplicate(); // ByteBuffers are not thread-safe
+            final byte[] unitBuffer = newUnitBuffer();
+            for (int i = from; i < to; i++) {
+                if (offsets[i] > 0) {
+                    view.position(start + offsets[i]);
+                    dest[i] = elementType.decode(view, unitBuffer, uint256, pool);
+                    ends[i] = view.position();
+                }
+            }
+        }
+
+        final class Range extends RecursiveAction {
+
+            private static final long serialVersionUID = -3297431805921870466L;
+
+            private final int from, to;
+
+            Range(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from <= PARALLEL_LEAF_SIZE) {
+                    decode(from, to);
+                    return;
+                }
+                final int mid = (from + to) >>> 1;
+                invokeAll(new Range(from, mid), new Range(mid, to));
+            }
+        }
+    }
+
+    private static void invoke(ForkJoinPool pool, RecursiveAction task) {
+        try {
+            if(ForkJoinTask.getPool() == pool) {
+                task.invoke(); // nested within another parallel task in the same pool
+            } else {
+                pool.invoke(task);
+            }
+        } catch (IllegalArgumentException iae) {
+            // each time the exception crosses threads, ForkJoinTask rethrows a copy caused by the one before it
+            IllegalArgumentException original = iae;
+            while (original.getCause() instanceof IllegalArgumentException) {
+                original = (IllegalArgumentException) original.getCause();
+            }
+            throw original;
+        }
+    }
+
+    /** Whether this array is validated and written by a {@link ParallelEncode} under {@code plan}. */
+    private boolean isParallel(Object value, EncodePlan plan) {
+        return plan != null
+                && plan.pool != null
+                && dynamic
+                && value instanceof Object[]
+                && ((Object[]) value).length >= plan.threshold;
+    }
+
+    private int validateParallel(Object[] arr, EncodePlan plan) {
+        final int len = checkLength(arr.length, arr);
+        final ParallelEncode pe = new ParallelEncode(arr, plan.pool);
+        invoke(plan.pool, pe.new Range(0, pe.plans.length, false));
+        int byteLength = elementType.dynamic ? len * UNIT_LENGTH_BYTES : 0; // 32 bytes per offset
+        for (int elementLen : pe.lengths) {
+            byteLength += elementLen;
+        }
+        plan.addParallel(pe);
+        return length == DYNAMIC_LENGTH
+                ? ARRAY_LENGTH_BYTE_LEN + byteLength
+                : byteLength;
+    }
+
+    /**
+     * Validates and then writes each chunk of {@link #PARALLEL_LEAF_SIZE} elements concurrently. Validation records the
+     * elements' lengths and, for dynamic elements, each chunk's own {@link EncodePlan}, so that the offset table can be
+     * written and each chunk given its own region of the destination without measuring any element again.
+     */
+    final class ParallelEncode {
+
+        private final Object[] objects;
+        private final ForkJoinPool pool;
+        private final int[] lengths;
+        private final EncodePlan[] plans;
+        private ByteBuffer dest;
+        private int[] positions;
+
+        ParallelEncode(Object[] objects, ForkJoinPool pool) {
+            this.objects = objects;
+            this.pool = pool;
+            this.lengths = new int[objects.length];
+            this.plans = new EncodePlan[(objects.length + PARALLEL_LEAF_SIZE - 1) / PARALLEL_LEAF_SIZE];
+        }
+
+        /** Writes the elements, preceded by their offsets if they are dynamic, at the destination's position. */
+        void encode(ByteBuffer dest) {
+            final int len = objects.length;
+            final int start = dest.position();
+            this.dest = dest;
+            this.positions = new int[len + 1];
+            int offset = elementType.dynamic ? len * Encoding.OFFSET_LENGTH_BYTES : 0;
+            for (int i = 0; i < len; i++) {
+                if(elementType.dynamic) {
+                    Encoding.insertInt(offset, dest);
+                }
+                positions[i] = start + offset;
+                offset += lengths[i];
+            }
+            positions[len] = start + offset;
+            invoke(pool, new Range(0, plans.length, true));
+            dest.position(positions[len]);
+        }
+
+        void validate(int chunk) {
+            final EncodePlan plan = elementType.dynamic ? new EncodePlan() : null;
+            int i = chunk * PARALLEL_LEAF_SIZE;
+            try {
+                for (final int end = Math.min(objects.length, i + PARALLEL_LEAF_SIZE); i < end; i++) {
+                    lengths[i] = elementType.validate(objects[i], plan);
+                }
+            } catch (IllegalArgumentException iae) {
+                // sequential validation of arrays of unit types names the index; arrays and tuples name their own
+                throw elementType.typeCode() < TYPE_CODE_ARRAY ? abiException(iae, i) : iae;
+            }
+            plans[chunk] = plan;
+        }
+
+        void write(int chunk) {
+            final int from = chunk * PARALLEL_LEAF_SIZE;
+            final ByteBuffer view = dest.duplicate(); // ByteBuffers are not thread-safe
+            view.position(positions[from]);
+            final EncodePlan plan = plans[chunk];
+            for (int i = from, end = Math.min(objects.length, from + PARALLEL_LEAF_SIZE); i < end; i++) {
+                if(plan == null) {
+                    elementType.encodeHead(objects[i], view, 0);
+                } else {
+                    elementType.encodeTail(objects[i], view, plan);
+                }
+            }
+        }
+
+        final class Range extends RecursiveAction {
+
+            private static final long serialVersionUID = 2467301893450927764L;
+
+            private final int from, to;
+            private final boolean write;
+
+            Range(int from, int to, boolean write) {
+                this.from = from;
+                this.to = to;
+                this.write = write;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from == 1) {
+                    if (write) {
+                        write(from);
+                    } else {
+                        validate(from);
+                    }
+                    return;
+                }
+                final int mid = (from + to) >>> 1;
+                invokeAll(new Range(from, mid, write), new Range(mid, to, write));
+            }
+        }
+    }
+
     @Override
     public J parseArgument(String s) {
         throw new UnsupportedOperationException();
@@ -15,10 +15,12 @@
 */
 package com.esaulpaugh.headlong.abi;
 
+import com.esaulpaugh.headlong.abi.util.Uint256;
+
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 
-/** Represents integer types from uint64 to int256. */
+/** Represents integer types from uint64 to int256. Unsigned types also accept {@link Uint256} values. */
 public final class BigIntegerType extends UnitType<BigInteger> {
 
     private static final String ARRAY_CLASS_NAME = BigInteger[].class.getName();
@@ -37,16 +39,34 @@ public final class BigIntegerType extends UnitType<BigInteger> {
         return TYPE_CODE_BIG_INTEGER;
     }
 
+    /**
+     * Accepts {@link BigInteger}s and, if this type is unsigned, {@link Uint256}s.
+     *
+     * @param value a {@link BigInteger} or {@link Uint256}
+     * @return the byte length of the ABI encoding of {@code value}
+     */
     @Override
     public int validate(Object value) {
-        validateClass(value);
-        validateBigInt((BigInteger) value);
+        if(unsigned && value instanceof Uint256) {
+            validateUint256((Uint256) value);
+        } else {
+            validateClass(value);
+            validateBigInt((BigInteger) value);
+        }
         return UNIT_LENGTH_BYTES;
     }
 
+    void validateUint256(Uint256 value) {
+        checkBitLen(value.bitLength());
+    }
+
     @Override
     int encodeHead(Object value, ByteBuffer dest, int nextOffset) {
-        Encoding.insertInt((BigInteger) value, UNIT_LENGTH_BYTES, dest);
+        if(value instanceof Uint256) {
+            ((Uint256) value).put(dest);
+        } else {
+            Encoding.insertInt((BigInteger) value, UNIT_LENGTH_BYTES, dest);
+        }
         return nextOffset;
     }
 
@@ -58,6 +78,19 @@ public final class BigIntegerType extends UnitType<BigInteger> {
         return bi;
     }
 
+    @Override
+    Object decode(ByteBuffer bb, byte[] unitBuffer, boolean uint256) {
+        return uint256 && unsigned
+                ? decodeUint256(bb)
+                : decode(bb, unitBuffer);
+    }
+
+    Uint256 decodeUint256(ByteBuffer bb) {
+        Uint256 val = Uint256.get(bb);
+        validateUint256(val);
+        return val;
+    }
+
     @Override
     public BigInteger parseArgument(String s) {
         BigInteger bigInt = new BigInteger(s);
@@ -15,7 +15,6 @@
 */
 package com.esaulpaugh.headlong.abi;
 
-import java.math.BigInteger;
 import java.nio.ByteBuffer;
 
 /** Unsigned 0 or 1. */
@@ -63,10 +62,7 @@ public final class BooleanType extends UnitType<Boolean> {
 
     @Override
     Boolean decode(ByteBuffer bb, byte[] unitBuffer) {
-        bb.get(unitBuffer);
-        BigInteger bi = new BigInteger(unitBuffer);
-        validateBigInt(bi);
-        return decodeBoolean(bi.byteValue());
+        return decodeBoolean((byte) decodePrimitive(bb));
     }
 
     static Boolean decodeBoolean(byte b) {
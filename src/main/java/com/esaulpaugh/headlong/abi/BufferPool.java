@@ -0,0 +1,131 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.abi;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A thread-safe pool of heap buffers, in power-of-two size classes, for encodings which are short-lived, e.g. calls
+ * written to a socket and then discarded. Buffers are obtained as {@link Lease}s, which must be released when their
+ * contents are no longer needed. Each acquisition returns a new lease, so a lease once released stays released even
+ * after its buffer has been handed to another caller. Lengths larger than the largest size class are allocated but not pooled.
+ */
+public final class BufferPool {
+
+    private static final int MIN_SIZE_CLASS = 6; // 64 bytes
+    private static final int MAX_SIZE_CLASS = 20; // 1 MiB
+    private static final int DEFAULT_MAX_PER_CLASS = 64;
+
+    private final List<ArrayBlockingQueue<ByteBuffer>> classes;
+    private final ArrayBlockingQueue<EncodePlan> plans;
+
+    public BufferPool() {
+        this(DEFAULT_MAX_PER_CLASS);
+    }
+
+    /**
+     * @param maxPerClass   the maximum number of idle buffers retained in each size class
+     */
+    public BufferPool(int maxPerClass) {
+        if(maxPerClass <= 0) {
+            throw new IllegalArgumentException("maxPerClass must be positive");
+        }
+        this.classes = new ArrayList<>(MAX_SIZE_CLASS + 1 - MIN_SIZE_CLASS);
+        for (int i = MIN_SIZE_CLASS; i <= MAX_SIZE_CLASS; i++) {
+            classes.add(new ArrayBlockingQueue<>(maxPerClass));
+        }
+        this.plans = new ArrayBlockingQueue<>(maxPerClass);
+    }
+
+    /**
+     * Leases a buffer whose position is zero and whose limit is {@code length}. The capacity may be larger.
+     *
+     * @param length    the number of bytes needed
+     * @return  the lease
+     */
+    public Lease acquire(int length) {
+        if(length < 0) {
+            throw new IllegalArgumentException("length is negative: " + length);
+        }
+        final int sizeClass = sizeClass(length);
+        if(sizeClass > MAX_SIZE_CLASS) {
+            return new Lease(null, ByteBuffer.allocate(length));
+        }
+        ByteBuffer buffer = classes.get(sizeClass - MIN_SIZE_CLASS).poll();
+        if(buffer == null) {
+            buffer = ByteBuffer.allocate(1 << sizeClass);
+        }
+        buffer.clear().limit(length);
+        return new Lease(this, buffer);
+    }
+
+    private static int sizeClass(int length) {
+        return length <= 1 << MIN_SIZE_CLASS
+                ? MIN_SIZE_CLASS
+                : Integer.SIZE - Integer.numberOfLeadingZeros(length - 1);
+    }
+
+    EncodePlan takePlan() {
+        final EncodePlan plan = plans.poll();
+        return plan != null ? plan : new EncodePlan();
+    }
+
+    void givePlan(EncodePlan plan) {
+        plans.offer(plan.reset());
+    }
+
+    private void release(ByteBuffer buffer) {
+        classes.get(sizeClass(buffer.capacity()) - MIN_SIZE_CLASS).offer(buffer); // dropped if the class is full
+    }
+
+    /**
+     * A buffer on loan from a {@link BufferPool}. Not thread-safe. After {@link #close()}, the buffer may be handed to
+     * another caller and must no longer be used.
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final BufferPool pool;
+        private final ByteBuffer buffer;
+        private boolean released;
+
+        private Lease(BufferPool pool, ByteBuffer buffer) {
+            this.pool = pool;
+            this.buffer = buffer;
+        }
+
+        public ByteBuffer buffer() {
+            if(released) {
+                throw new IllegalStateException("lease already released");
+            }
+            return buffer;
+        }
+
+        /** Returns the buffer to the pool. */
+        @Override
+        public void close() {
+            if(released) {
+                throw new IllegalStateException("lease already released");
+            }
+            released = true;
+            if(pool != null) {
+                pool.release(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.abi;
+
+import com.esaulpaugh.headlong.util.Integers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+
+import static com.esaulpaugh.headlong.abi.UnitType.UNIT_LENGTH_BYTES;
+
+/**
+ * Feeds an encoding to a {@link MessageDigest} or a {@link WritableByteChannel} through a small per-thread scratch
+ * buffer so that the full encoding is never materialized. Encoders reserve room for each bounded piece before writing
+ * it; byte arrays too large for the scratch buffer bypass it where the target allows. Channels are fed from a direct
+ * staging buffer, which they can write without an intermediate copy, and must be in blocking mode, since a write is
+ * retried until the whole buffer is written. {@link IOException}s are wrapped in {@link UncheckedIOException}s.
+ */
+final class ByteSink {
+
+    static final int CAPACITY = 512;
+    static final int STAGING_CAPACITY = 8192;
+
+    private static final ThreadLocal<ByteBuffer> SCRATCH = ThreadLocal.withInitial(() -> ByteBuffer.allocate(CAPACITY));
+    private static final ThreadLocal<ByteBuffer> STAGING = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(STAGING_CAPACITY));
+
+    private final MessageDigest digest;
+    private final WritableByteChannel channel;
+    private final ByteBuffer scratch;
+
+    ByteSink(MessageDigest digest) {
+        this(digest, SCRATCH.get());
+    }
+
+    ByteSink(MessageDigest digest, ByteBuffer scratch) {
+        this(digest, null, scratch);
+    }
+
+    ByteSink(WritableByteChannel channel) {
+        this(null, requireBlocking(channel), STAGING.get());
+    }
+
+    private ByteSink(MessageDigest digest, WritableByteChannel channel, ByteBuffer scratch) {
+        this.digest = digest;
+        this.channel = channel;
+        this.scratch = scratch;
+        this.scratch.clear();
+    }
+
+    private static WritableByteChannel requireBlocking(WritableByteChannel channel) {
+        if(channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+            throw new IllegalArgumentException("channel must be in blocking mode");
+        }
+        return channel;
+    }
+
+    /**
+     * @param n the number of bytes about to be written, at most {@link #CAPACITY}
+     * @return  the scratch buffer, with at least {@code n} bytes remaining
+     */
+    ByteBuffer reserve(int n) {
+        if(scratch.remaining() < n) {
+            flush();
+        }
+        return scratch;
+    }
+
+    void put(byte[] bytes) {
+        if(bytes.length <= scratch.remaining()) {
+            scratch.put(bytes);
+        } else if(bytes.length < scratch.capacity()) {
+            flush();
+            scratch.put(bytes);
+        } else {
+            putLarge(bytes);
+        }
+    }
+
+    private void putLarge(byte[] bytes) {
+        if(digest != null) {
+            flush();
+            digest.update(bytes);
+        } else if(channel instanceof GatheringByteChannel) {
+            scratch.flip();
+            final ByteBuffer[] srcs = new ByteBuffer[] { scratch, ByteBuffer.wrap(bytes) };
+            try {
+                while (srcs[1].hasRemaining()) {
+                    ((GatheringByteChannel) channel).write(srcs);
+                }
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+            scratch.clear();
+        } else {
+            int off = 0;
+            while (off < bytes.length) {
+                final int n = Math.min(scratch.remaining(), bytes.length - off);
+                scratch.put(bytes, off, n);
+                off += n;
+                if(!scratch.hasRemaining()) {
+                    flush();
+                }
+            }
+        }
+    }
+
+    void putPadded(byte[] bytes) {
+        put(bytes);
+        final int rem = Integers.mod(bytes.length, UNIT_LENGTH_BYTES);
+        if(rem != 0) {
+            final int n = UNIT_LENGTH_BYTES - rem;
+            Encoding.insertPadding(n, false, reserve(n));
+        }
+    }
+
+    void flush() {
+        if(digest != null) {
+            digest.update(scratch.array(), 0, scratch.position());
+        } else {
+            scratch.flip();
+            try {
+                while (scratch.hasRemaining()) {
+                    channel.write(scratch);
+                }
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }
+        scratch.clear();
+    }
+}
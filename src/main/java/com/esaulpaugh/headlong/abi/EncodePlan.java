@@ -0,0 +1,122 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.abi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Records the byte length of every dynamic sub-value as it is measured during validation so that offsets can be
+ * written without measuring the values a second time. Each dynamic tuple or array reserves one slot per element, in the
+ * same order in which the encoder later consumes them. The UTF-8 encodings of {@code string} values are likewise queued
+ * so that each string is converted only once per encoding. For parallel encodings, arrays large enough to be split
+ * into chunks are queued with their per-chunk plans. Instances may be reused across encodings but are not thread-safe.
+ */
+public final class EncodePlan {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    final ForkJoinPool pool; // non-null only for parallel encodings
+    final int threshold;
+
+    private int[] lengths;
+    private int size; // = 0
+    private int cursor; // = 0
+
+    private byte[][] strings = new byte[0][];
+    private int stringCount; // = 0
+    private int stringCursor; // = 0
+
+    private final ArrayList<ArrayType<?, ?>.ParallelEncode> parallel = new ArrayList<>();
+    private int parallelCursor; // = 0
+
+    public EncodePlan() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public EncodePlan(int initialCapacity) {
+        this(initialCapacity, null, 0);
+    }
+
+    /**
+     * @param pool      the pool in which to validate and write arrays of at least {@code threshold} elements
+     * @param threshold the minimum number of elements for which an array is encoded in parallel
+     */
+    EncodePlan(ForkJoinPool pool, int threshold) {
+        this(DEFAULT_CAPACITY, pool, threshold);
+    }
+
+    private EncodePlan(int initialCapacity, ForkJoinPool pool, int threshold) {
+        this.lengths = new int[initialCapacity];
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    EncodePlan reset() {
+        size = 0;
+        cursor = 0;
+        Arrays.fill(strings, 0, stringCount, null); // don't retain large payloads between encodings
+        stringCount = 0;
+        stringCursor = 0;
+        parallel.clear();
+        parallelCursor = 0;
+        return this;
+    }
+
+    int reserve(int n) {
+        final int start = size;
+        final int end = start + n;
+        if(end > lengths.length) {
+            lengths = Arrays.copyOf(lengths, Math.max(end, lengths.length << 1));
+        }
+        size = end;
+        return start;
+    }
+
+    void set(int slot, int byteLength) {
+        lengths[slot] = byteLength;
+    }
+
+    int consume(int n) {
+        final int start = cursor;
+        cursor = start + n;
+        return start;
+    }
+
+    int get(int slot) {
+        return lengths[slot];
+    }
+
+    void addString(byte[] utf8) {
+        if(stringCount == strings.length) {
+            strings = Arrays.copyOf(strings, Math.max(DEFAULT_CAPACITY, stringCount << 1));
+        }
+        strings[stringCount++] = utf8;
+    }
+
+    byte[] nextString() {
+        return strings[stringCursor++];
+    }
+
+    void addParallel(ArrayType<?, ?>.ParallelEncode pe) {
+        parallel.add(pe);
+    }
+
+    ArrayType<?, ?>.ParallelEncode nextParallel() {
+        return parallel.get(parallelCursor++);
+    }
+}
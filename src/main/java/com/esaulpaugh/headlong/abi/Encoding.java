@@ -54,13 +54,28 @@ final class Encoding {
     }
 
     static void insertInt(BigInteger signed, int paddedLen, ByteBuffer dest) {
+        if(signed.bitLength() < Long.SIZE) { // fits in a long without allocating
+            insertInt(signed.longValue(), paddedLen, dest);
+            return;
+        }
         byte[] arr = signed.toByteArray();
         int arrLen = arr.length;
-        if(arrLen <= UNIT_LENGTH_BYTES) {
+        if(arrLen <= paddedLen) {
             insertPadding(paddedLen - arrLen, signed.signum() < 0, dest);
             dest.put(arr);
         } else {
-            dest.put(arr, 1, UNIT_LENGTH_BYTES);
+            dest.put(arr, arrLen - paddedLen, paddedLen); // skip the sign byte of a full-width unsigned value
+        }
+    }
+
+    private static void insertInt(long val, int paddedLen, ByteBuffer dest) {
+        if(paddedLen >= Long.BYTES) {
+            insertPadding(paddedLen - Long.BYTES, val < 0, dest);
+            dest.putLong(val);
+        } else { // packed types narrower than a long; value already validated to fit
+            for (int shift = (paddedLen - 1) * Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+                dest.put((byte) (val >>> shift));
+            }
         }
     }
 
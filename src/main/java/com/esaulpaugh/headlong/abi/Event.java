@@ -16,11 +16,16 @@
 package com.esaulpaugh.headlong.abi;
 
 import com.esaulpaugh.headlong.util.JsonUtils;
+import com.esaulpaugh.headlong.util.Strings;
 import com.google.gson.JsonObject;
+import com.joemelsha.crypto.hash.Keccak256;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Objects;
 
+import static com.esaulpaugh.headlong.abi.UnitType.UNIT_LENGTH_BYTES;
+
 /** Represents an event in Ethereum. */
 public final class Event implements ABIObject {
 
@@ -32,6 +37,12 @@ public final class Event implements ABIObject {
 
     private final boolean anonymous;
 
+    private final TupleType indexedParams;
+
+    private final TupleType nonIndexedParams;
+
+    private final byte[] signatureHash;
+
     public Event(String name, String paramsString, boolean[] indexed) {
         this(name, paramsString, indexed, false);
     }
@@ -48,6 +59,9 @@ public final class Event implements ABIObject {
         }
         this.indexManifest = Arrays.copyOf(indexed, indexed.length);
         this.anonymous = anonymous;
+        this.indexedParams = inputs.subTupleType(indexManifest);
+        this.nonIndexedParams = inputs.subTupleType(indexManifest, true);
+        this.signatureHash = Keccak256.hash(Strings.decode(signature(), Strings.UTF_8));
     }
 
     public String getName() {
@@ -71,11 +85,81 @@ public final class Event implements ABIObject {
     }
 
     public TupleType getIndexedParams() {
-        return inputs.subTupleType(indexManifest);
+        return indexedParams;
     }
 
     public TupleType getNonIndexedParams() {
-        return inputs.subTupleType(indexManifest, true);
+        return nonIndexedParams;
+    }
+
+    /**
+     * @return  the Keccak-256 hash of the signature, which is the first topic of a non-anonymous event's logs
+     */
+    public byte[] topic0() {
+        return Arrays.copyOf(signatureHash, signatureHash.length);
+    }
+
+    boolean topic0Equals(byte[] topic) {
+        return Arrays.equals(signatureHash, topic);
+    }
+
+    /** The number of topics in this event's logs. */
+    int topicCount() {
+        return indexedParams.elementTypes.length + (anonymous ? 0 : 1);
+    }
+
+    /**
+     * Decodes a log emitted by this event into a {@link Tuple} of all parameters in declaration order. Unless the event
+     * is anonymous, the first topic must be the event's {@link #topic0()}. Indexed parameters of value types (integers,
+     * booleans, addresses, fixed-point numbers and bytes1 through bytes32) are decoded from their topics. Indexed
+     * parameters of other types are represented only by a hash in the log and are returned as the raw 32-byte topic.
+     *
+     * @param topics    the log's topics
+     * @param data      the log's data, the encoding of the non-indexed parameters
+     * @return  the decoded parameters
+     * @throws IllegalArgumentException if the topics don't match this event or the data is not a valid encoding
+     */
+    public Tuple decodeLog(byte[][] topics, byte[] data) {
+        final int skip = anonymous ? 0 : 1;
+        final int expectedTopics = topicCount();
+        if(topics.length != expectedTopics) {
+            throw new IllegalArgumentException("expected " + expectedTopics + " topics but found " + topics.length);
+        }
+        if(!anonymous && !topic0Equals(topics[0])) {
+            throw new IllegalArgumentException("unexpected topic0: expected " + Strings.encode(signatureHash) + " but found " + Strings.encode(topics[0]));
+        }
+        final Object[] nonIndexed = nonIndexedParams.decode(data).elements;
+        final Object[] elements = new Object[indexManifest.length];
+        final byte[] unitBuffer = ABIType.newUnitBuffer();
+        for (int i = 0, t = skip, n = 0; i < elements.length; i++) {
+            elements[i] = indexManifest[i]
+                    ? decodeTopic(inputs.elementTypes[i], topics[t++], unitBuffer)
+                    : nonIndexed[n++];
+        }
+        return new Tuple(elements);
+    }
+
+    private static Object decodeTopic(ABIType<?> type, byte[] topic, byte[] unitBuffer) {
+        if(topic.length != UNIT_LENGTH_BYTES) {
+            throw new IllegalArgumentException("topic length must be " + UNIT_LENGTH_BYTES + " but is " + topic.length);
+        }
+        if(type instanceof UnitType || isBytesN(type)) {
+            final ByteBuffer bb = ByteBuffer.wrap(topic);
+            final Object decoded = type.decode(bb, unitBuffer);
+            if(bb.hasRemaining()) {
+                throw new IllegalArgumentException("unconsumed bytes in topic");
+            }
+            return decoded;
+        }
+        return Arrays.copyOf(topic, topic.length); // a hash of the value
+    }
+
+    private static boolean isBytesN(ABIType<?> type) {
+        if(type instanceof ArrayType) {
+            ArrayType<?, ?> arrayType = (ArrayType<?, ?>) type;
+            return !arrayType.dynamic && arrayType.elementType.typeCode() == ABIType.TYPE_CODE_BYTE;
+        }
+        return false;
     }
 
     @Override
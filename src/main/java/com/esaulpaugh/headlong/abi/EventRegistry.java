@@ -0,0 +1,135 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.abi;
+
+import com.esaulpaugh.headlong.util.Strings;
+
+import java.util.Collection;
+
+import static com.esaulpaugh.headlong.abi.UnitType.UNIT_LENGTH_BYTES;
+
+/**
+ * An immutable index of {@link Event}s by {@link Event#topic0()} for decoding logs in bulk. Events which share a
+ * signature but differ in their number of indexed parameters, such as ERC-20 and ERC-721 {@code Transfer}, are told
+ * apart by the number of topics in a log. Anonymous events, which have no topic0, are not indexed. Lookups do not
+ * allocate. Safe for use by multiple threads.
+ */
+public final class EventRegistry {
+
+    private final Event[] events;
+    private final int mask;
+    private final int size;
+
+    public EventRegistry(Collection<Event> events) {
+        int capacity = Integer.highestOneBit(Math.max(1, events.size()) * 2 - 1) << 1; // load factor <= 0.5
+        this.events = new Event[capacity];
+        this.mask = capacity - 1;
+        int count = 0;
+        for (Event e : events) {
+            if(!e.isAnonymous() && put(e)) {
+                count++;
+            }
+        }
+        this.size = count;
+    }
+
+    /**
+     * @param arrayJson a contract ABI in JSON format
+     * @return  a registry of the ABI's events
+     * @see ABIJSON#parseEvents(String)
+     */
+    public static EventRegistry fromJson(String arrayJson) {
+        return new EventRegistry(ABIJSON.parseEvents(arrayJson));
+    }
+
+    private boolean put(Event e) {
+        final byte[] topic0 = e.topic0();
+        int i = slot(topic0);
+        Event existing;
+        while ((existing = events[i]) != null) {
+            if(existing.topic0Equals(topic0) && existing.topicCount() == e.topicCount()) {
+                if(existing.equals(e)) {
+                    return false;
+                }
+                throw new IllegalArgumentException("conflicting events with signature " + e.signature() + " and " + e.topicCount() + " topics");
+            }
+            i = (i + 1) & mask;
+        }
+        events[i] = e;
+        return true;
+    }
+
+    /* topics are hashes; the first four bytes are as good as any */
+    private int slot(byte[] topic0) {
+        return (topic0[0] << 24 | (topic0[1] & 0xFF) << 16 | (topic0[2] & 0xFF) << 8 | (topic0[3] & 0xFF)) & mask;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param topic0    the first topic of a log
+     * @return  an event whose signature hash is {@code topic0} or null if there is none
+     */
+    public Event get(byte[] topic0) {
+        return get(topic0, -1);
+    }
+
+    /**
+     * @param topic0        the first topic of a log
+     * @param topicCount    the number of topics in the log
+     * @return  the event whose signature hash is {@code topic0} and whose logs have {@code topicCount} topics, or null if
+     * there is none
+     */
+    public Event get(byte[] topic0, int topicCount) {
+        if(topic0.length != UNIT_LENGTH_BYTES) {
+            return null;
+        }
+        int i = slot(topic0);
+        Event e;
+        while ((e = events[i]) != null) {
+            if(e.topic0Equals(topic0) && (topicCount < 0 || e.topicCount() == topicCount)) {
+                return e;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Decodes a log with the event matching its first topic and its number of topics.
+     *
+     * @param topics    the log's topics
+     * @param data      the log's data
+     * @return  the decoded parameters
+     * @throws IllegalArgumentException if no event matches or the log is invalid
+     * @see Event#decodeLog(byte[][], byte[])
+     */
+    public Tuple decodeLog(byte[][] topics, byte[] data) {
+        if(topics.length == 0) {
+            throw new IllegalArgumentException("no topics");
+        }
+        Event e = get(topics[0], topics.length);
+        if(e == null) {
+            e = get(topics[0]); // if any, reports the topic count mismatch
+        }
+        if(e != null) {
+            return e.decodeLog(topics, data);
+        }
+        throw new IllegalArgumentException("unknown topic0: " + Strings.encode(topics[0]));
+    }
+}
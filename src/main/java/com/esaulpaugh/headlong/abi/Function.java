@@ -22,12 +22,18 @@ import com.esaulpaugh.headlong.util.Strings;
 import com.google.gson.JsonObject;
 import com.joemelsha.crypto.hash.Keccak;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.security.DigestException;
 import java.security.MessageDigest;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
 
 import static com.esaulpaugh.headlong.abi.UnitType.UNIT_LENGTH_BYTES;
@@ -62,6 +68,8 @@ public final class Function implements ABIObject {
 
     public static final int SELECTOR_LEN = 4;
 
+    private static final ThreadLocal<MessageDigest> DEFAULT_DIGEST = ThreadLocal.withInitial(Function::newDefaultDigest);
+
     private final Type type;
     private final String name;
     private final TupleType inputTypes;
@@ -76,7 +84,7 @@ public final class Function implements ABIObject {
     }
 
     public Function(String signature, String outputs) {
-        this(Type.FUNCTION, signature, outputs, newDefaultDigest());
+        this(Type.FUNCTION, signature, outputs, defaultDigest());
     }
 
     public Function(String signature, String outputs, MessageDigest messageDigest) {
@@ -217,18 +225,93 @@ public final class Function implements ABIObject {
     }
 
     public ByteBuffer encodeCall(Tuple args) {
-        ByteBuffer dest = ByteBuffer.wrap(new byte[measureCallLength(args)]); // ByteOrder.BIG_ENDIAN by default
-        encodeCall(args, dest);
+        final EncodePlan plan = new EncodePlan();
+        ByteBuffer dest = ByteBuffer.wrap(new byte[Function.SELECTOR_LEN + inputTypes.validate(args, plan)]); // ByteOrder.BIG_ENDIAN by default
+        dest.put(selector);
+        inputTypes.encodeTail(args, dest, plan);
         return dest;
     }
 
     public Function encodeCall(Tuple args, ByteBuffer dest) {
-        inputTypes.validate(args);
+        return encodeCall(args, dest, new EncodePlan());
+    }
+
+    /**
+     * Puts into {@code dest} the selector followed by the ABI encoding of {@code args}, memoizing the byte lengths of
+     * dynamic sub-values in {@code plan}.
+     *
+     * @param args the function arguments
+     * @param dest the destination buffer
+     * @param plan a plan, which will be reset and may be reused afterwards
+     * @return this {@link Function}
+     */
+    public Function encodeCall(Tuple args, ByteBuffer dest, EncodePlan plan) {
+        inputTypes.validate(args, plan.reset());
         dest.put(selector);
-        inputTypes.encodeTail(args, dest);
+        inputTypes.encodeTail(args, dest, plan);
         return this;
     }
 
+    /**
+     * Like {@link #encodeCall(Tuple)} but encodes into a buffer leased from {@code pool} instead of a newly allocated
+     * array. The returned lease's buffer is flipped, i.e. ready to be written out, and the lease should be closed once
+     * its bytes have been consumed.
+     *
+     * @param args the function arguments
+     * @param pool the pool from which to lease the buffer
+     * @return the lease of a buffer containing the selector followed by the encoded arguments
+     */
+    public BufferPool.Lease encodeCall(Tuple args, BufferPool pool) {
+        final EncodePlan plan = pool.takePlan();
+        try {
+            final BufferPool.Lease lease = pool.acquire(Function.SELECTOR_LEN + inputTypes.validate(args, plan));
+            final ByteBuffer dest = lease.buffer();
+            dest.put(selector);
+            inputTypes.encodeTail(args, dest, plan);
+            dest.flip();
+            return lease;
+        } finally {
+            pool.givePlan(plan);
+        }
+    }
+
+    /**
+     * Writes the selector followed by the ABI encoding of {@code args} to {@code channel} through a fixed-size direct
+     * staging buffer, so that large calldata is never fully materialized.
+     *
+     * @param args    the function arguments
+     * @param channel the destination channel, which must be in blocking mode and is not closed
+     * @throws IOException if writing to the channel fails
+     * @see TupleType#encodeToChannel(Tuple, WritableByteChannel)
+     */
+    public void encodeCallToChannel(Tuple args, WritableByteChannel channel) throws IOException {
+        final EncodePlan plan = new EncodePlan();
+        inputTypes.validate(args, plan);
+        try {
+            final ByteSink sink = new ByteSink(channel);
+            sink.put(selector);
+            inputTypes.encodeTail(args, sink, plan);
+            sink.flush();
+        } catch (UncheckedIOException uioe) {
+            throw uioe.getCause();
+        }
+    }
+
+    /**
+     * Like {@link #encodeCall(Tuple)} but skips validation of {@code args}. Intended for arguments known to be valid,
+     * such as those produced by a decoder; invalid arguments yield an undefined encoding or an unchecked exception.
+     *
+     * @param args the function arguments
+     * @return the encoded call
+     */
+    public ByteBuffer encodeCallTrusted(Tuple args) {
+        final EncodePlan plan = new EncodePlan();
+        ByteBuffer dest = ByteBuffer.wrap(new byte[Function.SELECTOR_LEN + inputTypes.measure(args, plan)]);
+        dest.put(selector);
+        inputTypes.encodeTail(args, dest, plan);
+        return dest;
+    }
+
     public Tuple decodeCall(byte[] array) {
         return decodeCall(ByteBuffer.wrap(array));
     }
@@ -253,6 +336,41 @@ public final class Function implements ABIObject {
         return outputTypes.decode(returnVals);
     }
 
+    /**
+     * Decodes many sets of return values, such as the results of repeated {@code eth_call}s, in order.
+     *
+     * @param returnVals    the encoded return values of each call
+     * @param executor      the executor on which to decode chunks of the batch, or null to decode on the calling thread
+     * @return  the decoded values, in the order of {@code returnVals}
+     * @see TupleType#decodeAll(List, Executor)
+     */
+    public List<Tuple> decodeReturnAll(List<byte[]> returnVals, Executor executor) {
+        return outputTypes.decodeAll(returnVals, executor);
+    }
+
+    /**
+     * Decodes the return values, decoding large arrays of dynamic elements in parallel.
+     *
+     * @param returnVals    the encoded return values
+     * @param pool          the pool in which to decode large arrays
+     * @return  the decoded values
+     * @see TupleType#decode(byte[], ForkJoinPool)
+     */
+    public Tuple decodeReturn(byte[] returnVals, ForkJoinPool pool) {
+        return outputTypes.decode(returnVals, pool);
+    }
+
+    /**
+     * Decodes the return values only as they are accessed.
+     *
+     * @param returnVals    the encoded return values
+     * @return  the lazily decoded values
+     * @see TupleType#decodeLazy(ByteBuffer)
+     */
+    public LazyTuple decodeReturnLazy(byte[] returnVals) {
+        return outputTypes.decodeLazy(returnVals);
+    }
+
     @Override
     public int hashCode() {
         return 31 * Objects.hash(type, name, inputTypes, outputTypes, hashAlgorithm, stateMutability)
@@ -301,7 +419,7 @@ public final class Function implements ABIObject {
     }
 
     public static Function fromJsonObject(JsonObject function) {
-        return fromJsonObject(function, Function.newDefaultDigest());
+        return fromJsonObject(function, defaultDigest());
     }
 
     public static Function fromJsonObject(JsonObject function, MessageDigest messageDigest) {
@@ -316,6 +434,11 @@ public final class Function implements ABIObject {
         return new Keccak(256); // replace this with your preferred impl
     }
 
+    /* a per-thread instance of the default digest which is only used to generate selectors, and is reset before each use */
+    static MessageDigest defaultDigest() {
+        return DEFAULT_DIGEST.get();
+    }
+
     public static String formatCall(byte[] abiCall) {
         return formatCall(abiCall, 0, abiCall.length);
     }
@@ -0,0 +1,146 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.abi;
+
+import com.esaulpaugh.headlong.util.Strings;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collection;
+
+/**
+ * An immutable index of {@link Function}s by selector for dispatching calldata of unknown origin. Selectors are kept as
+ * primitive ints in an open-addressing table so that lookups do not allocate. Only functions of type
+ * {@link Function.Type#FUNCTION} are indexed. Safe for use by multiple threads.
+ */
+public final class FunctionRegistry {
+
+    private final int[] selectors;
+    private final Function[] functions;
+    private final int mask;
+    private final int size;
+
+    public FunctionRegistry(Collection<Function> functions) {
+        int capacity = Integer.highestOneBit(Math.max(1, functions.size()) * 2 - 1) << 1; // load factor <= 0.5
+        this.selectors = new int[capacity];
+        this.functions = new Function[capacity];
+        this.mask = capacity - 1;
+        int count = 0;
+        for (Function f : functions) {
+            if(f.getType() == Function.Type.FUNCTION && put(f)) {
+                count++;
+            }
+        }
+        this.size = count;
+    }
+
+    /**
+     * @param arrayJson a contract ABI in JSON format
+     * @return  a registry of the ABI's functions
+     * @see ABIJSON#parseFunctions(String)
+     */
+    public static FunctionRegistry fromJson(String arrayJson) {
+        return new FunctionRegistry(ABIJSON.parseFunctions(arrayJson));
+    }
+
+    private boolean put(Function f) {
+        final int selector = selectorInt(f.selector());
+        int i = slot(selector);
+        Function existing;
+        while ((existing = functions[i]) != null) {
+            if(selectors[i] == selector) {
+                if(existing.getCanonicalSignature().equals(f.getCanonicalSignature())) {
+                    return false;
+                }
+                throw new IllegalArgumentException("selector collision: " + existing.getCanonicalSignature()
+                        + " and " + f.getCanonicalSignature() + " are both " + f.selectorHex());
+            }
+            i = (i + 1) & mask;
+        }
+        selectors[i] = selector;
+        functions[i] = f;
+        return true;
+    }
+
+    private int slot(int selector) {
+        final int h = selector * 0x9E3779B9; // selectors can be mined to collide in their low bits, so mix
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static int selectorInt(byte[] selector) {
+        return selector[0] << 24 | (selector[1] & 0xFF) << 16 | (selector[2] & 0xFF) << 8 | (selector[3] & 0xFF);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param selector  the four selector bytes as a big-endian int
+     * @return  the matching function or null if there is none
+     */
+    public Function get(int selector) {
+        int i = slot(selector);
+        Function f;
+        while ((f = functions[i]) != null) {
+            if(selectors[i] == selector) {
+                return f;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Looks up the function whose selector is at the buffer's current position, without changing the position.
+     *
+     * @param calldata  the buffer containing the call
+     * @return  the matching function or null if there is none
+     * @throws IllegalArgumentException if fewer than four bytes remain
+     */
+    public Function get(ByteBuffer calldata) {
+        return get(peekSelector(calldata));
+    }
+
+    private static int peekSelector(ByteBuffer calldata) {
+        if(calldata.remaining() < Function.SELECTOR_LEN) {
+            throw new IllegalArgumentException("not enough bytes for selector: " + calldata.remaining() + " < " + Function.SELECTOR_LEN);
+        }
+        final int selector = calldata.getInt(calldata.position());
+        return calldata.order() == ByteOrder.BIG_ENDIAN ? selector : Integer.reverseBytes(selector);
+    }
+
+    public Tuple decodeCall(byte[] calldata) {
+        return decodeCall(ByteBuffer.wrap(calldata));
+    }
+
+    /**
+     * Decodes the call at the buffer's current position with the function matching its selector.
+     *
+     * @param calldata  the buffer containing the selector and encoded arguments
+     * @return  the decoded arguments
+     * @throws IllegalArgumentException if no function matches the selector or the arguments are invalid
+     * @see #get(ByteBuffer)
+     */
+    public Tuple decodeCall(ByteBuffer calldata) {
+        final int selector = peekSelector(calldata);
+        final Function f = get(selector);
+        if(f != null) {
+            return f.decodeCall(calldata);
+        }
+        throw new IllegalArgumentException("unknown selector: " + Strings.encode(ByteBuffer.allocate(Function.SELECTOR_LEN).putInt(selector).array()));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.abi;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A read-only view of an encoded tuple whose elements are decoded on first access and then cached. Created by
+ * {@link TupleType#decodeLazy(ByteBuffer)}. Useful when only a few elements of a large tuple are needed. Not
+ * thread-safe. Equality and hash code follow the {@link java.util.List} contract, under which array elements are
+ * compared by reference; use {@link #toTuple()} for {@link Tuple}'s deep equality.
+ */
+public final class LazyTuple extends AbstractList<Object> implements RandomAccess {
+
+    private final TupleType tupleType;
+    private final ByteBuffer buffer;
+    private final Object[] elements;
+    private byte[] unitBuffer;
+
+    LazyTuple(TupleType tupleType, ByteBuffer buffer) {
+        this.tupleType = tupleType;
+        this.buffer = buffer;
+        this.elements = new Object[tupleType.elementTypes.length];
+    }
+
+    public TupleType getType() {
+        return tupleType;
+    }
+
+    @Override
+    public Object get(int index) {
+        Object e = elements[index];
+        if(e == null) {
+            if(unitBuffer == null) {
+                unitBuffer = ABIType.newUnitBuffer();
+            }
+            e = elements[index] = tupleType.decodeElement(index, buffer, unitBuffer);
+        }
+        return e;
+    }
+
+    /**
+     * @param index the element's index
+     * @return  true if the element at the given index has already been decoded
+     */
+    public boolean isDecoded(int index) {
+        return elements[index] != null;
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    /**
+     * Decodes any elements not yet decoded.
+     *
+     * @return  a {@link Tuple} containing all of the elements
+     */
+    public Tuple toTuple() {
+        return new Tuple(decodeAll());
+    }
+
+    private Object[] decodeAll() {
+        for (int i = 0; i < elements.length; i++) {
+            get(i);
+        }
+        return Arrays.copyOf(elements, elements.length);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.deepToString(decodeAll());
+    }
+}
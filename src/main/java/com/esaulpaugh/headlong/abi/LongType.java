@@ -15,7 +15,6 @@
 */
 package com.esaulpaugh.headlong.abi;
 
-import java.math.BigInteger;
 import java.nio.ByteBuffer;
 
 public final class LongType extends UnitType<Long> {
@@ -38,10 +37,7 @@ public final class LongType extends UnitType<Long> {
 
     @Override
     Long decode(ByteBuffer bb, byte[] unitBuffer) {
-        bb.get(unitBuffer);
-        BigInteger bi = new BigInteger(unitBuffer);
-        validateBigInt(bi);
-        return bi.longValue();
+        return decodePrimitive(bb);
     }
 
     @Override
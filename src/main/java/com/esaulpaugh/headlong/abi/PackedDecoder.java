@@ -33,23 +33,36 @@ import static com.esaulpaugh.headlong.abi.ABIType.TYPE_CODE_TUPLE;
 import static com.esaulpaugh.headlong.abi.ArrayType.DYNAMIC_LENGTH;
 
 /**
- * Experimental. Unoptimized.
+ * Experimental. Decodes non-standard packed encodings of tuples containing at most one dynamic element. The first
+ * decode of each {@link TupleType} compiles a layout: the packed length of every static element and the fixed offsets
+ * of the elements before the dynamic one (from the start) and after it (from the end). The layout is cached in the
+ * {@link TupleType}, so subsequent decodes are a single pass with no length computation.
  */
 public final class PackedDecoder {
 
+    private static final int DYNAMIC = -1;
+
     public static Tuple decode(TupleType types, byte[] buffer) {
         return decode(types, buffer, 0, buffer.length);
     }
 
     public static Tuple decode(TupleType tupleType, byte[] buffer, int from, int to) {
-        if (countDynamicsTupleType(tupleType) <= 1) {
-            final Tuple[] elements = new Tuple[1];
-            decodeTuple(tupleType, buffer, from, to, elements, 0); // can also call decodeTupleStatic if numDynamic == 0
-            final Tuple tuple = elements[0];
-            tupleType.validate(tuple);
-            return tuple;
+        final Layout layout = layout(tupleType);
+        if(layout.len != DYNAMIC && to - from != layout.len) {
+            throw new IllegalArgumentException("packed length mismatch: actual != expected: " + (to - from) + " != " + layout.len);
+        }
+        return (Tuple) layout.decode(buffer, from, to);
+    }
+
+    private static Layout layout(TupleType tupleType) {
+        Layout layout = tupleType.packedLayout;
+        if(layout == null) {
+            if (countDynamicsTupleType(tupleType) > 1) {
+                throw new IllegalArgumentException("multiple dynamic elements");
+            }
+            tupleType.packedLayout = layout = new Layout(tupleType); // benign race; layouts are immutable
         }
-        throw new IllegalArgumentException("multiple dynamic elements");
+        return layout;
     }
 
     private static int countDynamicsTupleType(TupleType tupleType) {
@@ -79,121 +92,172 @@ public final class PackedDecoder {
         return numDynamic;
     }
 
-    private static int decodeTuple(TupleType tupleType, byte[] buffer, int start, int end, Object[] parentElements, int pei) {
-        final ABIType<?>[] elementTypes = tupleType.elementTypes;
-        final int len = elementTypes.length;
-        final Object[] elements = new Object[len];
+    private static Layout compile(ABIType<?> type) {
+        return type instanceof TupleType ? new Layout((TupleType) type) : new Layout(type);
+    }
+
+    /**
+     * The compiled decoding of one type. For a tuple: the layouts of its elements, the index of its dynamic element (if
+     * any), and each other element's offset from the start (before the dynamic element) or from the end (after it).
+     */
+    static final class Layout {
 
-        int mark = -1;
+        private final ABIType<?> type;
+        private final int typeCode;
+        private final int len; // packed byte length, or DYNAMIC
+        private final Uint uint; // unsigned int and long types only
 
-        for (int i = len - 1; i >= 0; i--) {
-            final ABIType<?> type = elementTypes[i];
-            if (type.dynamic) {
-                mark = i;
-                break;
-            }
-            // static types only
-            final int typeCode = type.typeCode();
-            if(TYPE_CODE_ARRAY == typeCode) {
+        private final Layout element; // arrays only
+
+        private final Layout[] members; // tuples only
+        private final int[] offsets;
+        private final int mark;
+        private final int prefixLen;
+        private final int suffixLen;
+
+        private Layout(ABIType<?> type) {
+            this.type = type;
+            this.typeCode = type.typeCode();
+            this.members = null;
+            this.offsets = null;
+            this.mark = -1;
+            this.prefixLen = 0;
+            this.suffixLen = 0;
+            if(typeCode == TYPE_CODE_ARRAY) {
                 final ArrayType<? extends ABIType<?>, ?> arrayType = (ArrayType<? extends ABIType<?>, ?>) type;
-                end -= arrayType.elementType.byteLengthPacked(null) * arrayType.length;
-                decodeArray(arrayType, buffer, end, end, elements, i);
-            } else if(TYPE_CODE_TUPLE == typeCode) {
-                TupleType inner = (TupleType) type;
-                int innerLen = inner.byteLengthPacked(null);
-                end -= decodeTupleStatic(inner, buffer, end - innerLen, end, elements, i);
+                this.element = compile(arrayType.elementType);
+                if(element.len == DYNAMIC) {
+                    throw new IllegalArgumentException("array of dynamic elements");
+                }
+                if(arrayType.length == DYNAMIC_LENGTH) {
+                    if(element.len == 0) {
+                        throw new IllegalArgumentException("can't decode dynamic number of zero-length elements");
+                    }
+                    this.len = DYNAMIC;
+                } else {
+                    this.len = arrayType.length * element.len;
+                }
+                this.uint = null;
             } else {
-                end -= decode(elementTypes[i], buffer, end - type.byteLengthPacked(null), end, elements, i);
+                this.element = null;
+                this.len = type.byteLengthPacked(null);
+                this.uint = (typeCode == TYPE_CODE_INT || typeCode == TYPE_CODE_LONG) && ((UnitType<?>) type).unsigned
+                        ? new Uint(((UnitType<?>) type).bitLength)
+                        : null;
             }
         }
 
-        if (mark > -1) {
-            for (int i = 0; i <= mark; i++) {
-                start += decode(elementTypes[i], buffer, start, end, elements, i);
+        private Layout(TupleType tupleType) {
+            this.type = tupleType;
+            this.typeCode = TYPE_CODE_TUPLE;
+            this.uint = null;
+            this.element = null;
+            final ABIType<?>[] elementTypes = tupleType.elementTypes;
+            final int n = elementTypes.length;
+            this.members = new Layout[n];
+            this.offsets = new int[n];
+            int mark = -1;
+            for (int i = 0; i < n; i++) {
+                members[i] = compile(elementTypes[i]);
+                if(members[i].len == DYNAMIC) {
+                    mark = i;
+                }
+            }
+            this.mark = mark;
+            int prefix = 0;
+            for (int i = 0; i < (mark < 0 ? n : mark); i++) {
+                offsets[i] = prefix;
+                prefix += members[i].len;
+            }
+            int suffix = 0;
+            for (int i = n - 1; i > mark && mark >= 0; i--) {
+                suffix += members[i].len;
+                offsets[i] = suffix; // distance from the end
             }
+            this.prefixLen = prefix;
+            this.suffixLen = suffix;
+            this.len = mark < 0 ? prefix : DYNAMIC;
         }
-        return tupleType.byteLengthPacked(parentElements[pei] = new Tuple(elements));
-    }
 
-    private static int decode(ABIType<?> type, byte[] buffer, int idx, int end, Object[] elements, int i) {
-        switch (type.typeCode()) {
-        case TYPE_CODE_BOOLEAN: elements[i] = BooleanType.decodeBoolean(buffer[idx]); return type.byteLengthPacked(null);
-        case TYPE_CODE_BYTE: elements[i] = buffer[idx]; return type.byteLengthPacked(null);
-        case TYPE_CODE_INT: return decodeInt(type.byteLengthPacked(null), (IntType) type, buffer, idx, elements, i);
-        case TYPE_CODE_LONG: return decodeLong(type.byteLengthPacked(null), (LongType) type, buffer, idx, elements, i);
-        case TYPE_CODE_BIG_INTEGER: return decodeBigInteger(type.byteLengthPacked(null), buffer, idx, elements, i);
-        case TYPE_CODE_BIG_DECIMAL: return decodeBigDecimal(type.byteLengthPacked(null), ((BigDecimalType) type).scale, buffer, idx, elements, i);
-        case TYPE_CODE_ARRAY: return decodeArray((ArrayType<? extends ABIType<?>, ?>) type, buffer, idx, end, elements, i);
-        case TYPE_CODE_TUPLE:
-            return type.dynamic
-                    ? decodeTuple((TupleType) type, buffer, idx, end, elements, i)
-                    : decodeTupleStatic((TupleType) type, buffer, idx, end, elements, i);
-        default: throw new Error();
+        /* decodes the value occupying exactly [idx, end) */
+        Object decode(byte[] buffer, int idx, int end) {
+            switch (typeCode) {
+            case TYPE_CODE_BOOLEAN: return BooleanType.decodeBoolean(buffer[idx]);
+            case TYPE_CODE_BYTE: return buffer[idx];
+            case TYPE_CODE_INT: {
+                final int signed = getPackedInt(buffer, idx, len);
+                return uint != null ? (int) uint.toUnsignedLong(signed) : signed;
+            }
+            case TYPE_CODE_LONG: {
+                final long signed = getPackedLong(buffer, idx, len);
+                return uint != null ? uint.toUnsignedLong(signed) : signed;
+            }
+            case TYPE_CODE_BIG_INTEGER: return decodeBigInteger((UnitType<?>) type, buffer, idx, len);
+            case TYPE_CODE_BIG_DECIMAL: return new BigDecimal(decodeBigInteger((UnitType<?>) type, buffer, idx, len), ((BigDecimalType) type).scale);
+            case TYPE_CODE_ARRAY: return decodeArray(buffer, idx, end);
+            case TYPE_CODE_TUPLE: return decodeTuple(buffer, idx, end);
+            default: throw new Error();
+            }
         }
-    }
 
-    private static int decodeTupleStatic(TupleType tupleType, byte[] buffer, int idx, int end, Object[] parentElements, int pei) {
-        final ABIType<?>[] elementTypes = tupleType.elementTypes;
-        final int len = elementTypes.length;
-        final Object[] elements = new Object[len];
-        for (int i = 0; i < len; i++) {
-            idx += decode(elementTypes[i], buffer, idx, end, elements, i);
+        private Tuple decodeTuple(byte[] buffer, int start, int end) {
+            if(mark >= 0 && end - start < prefixLen + suffixLen) {
+                throw new IllegalArgumentException("not enough bytes for " + type.canonicalType + ": " + (end - start) + " < " + (prefixLen + suffixLen));
+            }
+            final Layout[] members = this.members;
+            final Object[] elements = new Object[members.length];
+            for (int i = 0; i < members.length; i++) {
+                final Layout m = members[i];
+                if(i < mark || mark < 0) {
+                    final int idx = start + offsets[i];
+                    elements[i] = m.decode(buffer, idx, idx + m.len);
+                } else if(i > mark) {
+                    final int idx = end - offsets[i];
+                    elements[i] = m.decode(buffer, idx, idx + m.len);
+                } else {
+                    elements[i] = m.decode(buffer, start + prefixLen, end - suffixLen);
+                }
+            }
+            return new Tuple(elements);
         }
-        return tupleType.byteLengthPacked(parentElements[pei] = new Tuple(elements));
-    }
-
-    private static int decodeInt(int elementLen, IntType intType, byte[] buffer, int idx, Object[] dest, int destIdx) {
-        int signed = getPackedInt(buffer, idx, elementLen);
-        dest[destIdx] = intType.unsigned ? (int) new Uint(intType.getBitLength()).toUnsignedLong(signed) : signed;
-        return elementLen;
-    }
-
-    private static int decodeLong(int elementLen, LongType longType, byte[] buffer, int idx, Object[] dest, int destIdx) {
-        long signed = getPackedLong(buffer, idx, elementLen);
-        dest[destIdx] = longType.unsigned ? new Uint(longType.getBitLength()).toUnsignedLong(signed) : signed;
-        return elementLen;
-    }
 
-    private static int decodeBigInteger(int elementLen, byte[] buffer, int idx, Object[] dest, int destIdx) {
-//        BigInteger val = new BigInteger(buffer, idx, elementLen); // Java 9+
-        BigInteger val = new BigInteger(Arrays.copyOfRange(buffer, idx, idx + elementLen));
-        dest[destIdx] = val;
-        return elementLen;
-    }
-
-    private static int decodeBigDecimal(int elementLen, int scale, byte[] buffer, int idx, Object[] dest, int destIdx) {
-//        BigInteger unscaled = new BigInteger(buffer, idx, elementLen); // Java 9+
-        BigInteger unscaled = new BigInteger(Arrays.copyOfRange(buffer, idx, idx + elementLen));
-        dest[destIdx] = new BigDecimal(unscaled, scale);
-        return elementLen;
-    }
-
-    private static int decodeArray(ArrayType<? extends ABIType<?>, ?> arrayType, byte[] buffer, int idx, int end, Object[] dest, int destIdx) {
-        final ABIType<?> elementType = arrayType.elementType;
-        final int elementByteLen = elementType.byteLengthPacked(null);
-        final int arrayLen;
-        if(arrayType.length == DYNAMIC_LENGTH) {
-            if (elementByteLen == 0) {
-                throw new IllegalArgumentException("can't decode dynamic number of zero-length elements");
+        private Object decodeArray(byte[] buffer, int idx, int end) {
+            final ArrayType<? extends ABIType<?>, ?> arrayType = (ArrayType<? extends ABIType<?>, ?>) type;
+            final Layout element = this.element;
+            final int elementLen = element.len;
+            final int arrayLen;
+            if(len == DYNAMIC) {
+                final int regionLen = end - idx;
+                if(regionLen % elementLen != 0) {
+                    throw new IllegalArgumentException("packed array length not a multiple of element length: " + regionLen + " % " + elementLen + " != 0");
+                }
+                arrayLen = regionLen / elementLen;
+            } else {
+                arrayLen = arrayType.length;
+            }
+            switch (element.typeCode) {
+            case TYPE_CODE_BOOLEAN: return decodeBooleanArray(arrayLen, buffer, idx);
+            case TYPE_CODE_BYTE: return arrayType.encodeIfString(decodeByteArray(arrayLen, buffer, idx));
+            case TYPE_CODE_INT: return decodeIntArray(element, arrayLen, buffer, idx);
+            case TYPE_CODE_LONG: return decodeLongArray(element, arrayLen, buffer, idx);
+            case TYPE_CODE_BIG_INTEGER:
+            case TYPE_CODE_BIG_DECIMAL:
+            case TYPE_CODE_ARRAY:
+            case TYPE_CODE_TUPLE:
+                final Object[] objects = (Object[]) Array.newInstance(element.type.clazz, arrayLen); // reflection ftw
+                for (int i = 0; i < arrayLen; i++, idx += elementLen) {
+                    objects[i] = element.decode(buffer, idx, idx + elementLen);
+                }
+                return objects;
+            default: throw new Error();
             }
-            arrayLen = (end - idx) / elementByteLen;
-        } else {
-            arrayLen = arrayType.length;
-        }
-        final Object array;
-        switch (elementType.typeCode()) {
-        case TYPE_CODE_BOOLEAN: array = decodeBooleanArray(arrayLen, buffer, idx); break;
-        case TYPE_CODE_BYTE: array = arrayType.encodeIfString(decodeByteArray(arrayLen, buffer, idx)); break;
-        case TYPE_CODE_INT: array = decodeIntArray((IntType) elementType, elementByteLen, arrayLen, buffer, idx); break;
-        case TYPE_CODE_LONG: array = decodeLongArray((LongType) elementType, elementByteLen, arrayLen, buffer, idx); break;
-        case TYPE_CODE_BIG_INTEGER: array = decodeBigIntegerArray(elementByteLen, arrayLen, buffer, idx); break;
-        case TYPE_CODE_BIG_DECIMAL: array = decodeBigDecimalArray(elementByteLen, ((BigDecimalType) elementType).scale, arrayLen, buffer, idx); break;
-        case TYPE_CODE_ARRAY:
-        case TYPE_CODE_TUPLE: array = decodeObjectArray(arrayLen, elementType, buffer, idx, end); break;
-        default: throw new Error();
         }
-        dest[destIdx] = array;
-        return arrayLen * elementByteLen;
+    }
+
+    private static BigInteger decodeBigInteger(UnitType<?> type, byte[] buffer, int idx, int len) {
+//        new BigInteger(buffer, idx, len) // Java 9+
+        final byte[] bytes = Arrays.copyOfRange(buffer, idx, idx + len);
+        return type.unsigned ? new BigInteger(1, bytes) : new BigInteger(bytes);
     }
 
     private static boolean[] decodeBooleanArray(int arrayLen, byte[] buffer, int idx) {
@@ -210,56 +274,30 @@ public final class PackedDecoder {
         return bytes;
     }
 
-    private static int[] decodeIntArray(IntType intType, int elementLen, int arrayLen, byte[] buffer, int idx) {
+    private static int[] decodeIntArray(Layout element, int arrayLen, byte[] buffer, int idx) {
+        final int elementLen = element.len;
+        final Uint uint = element.uint;
         int[] ints = new int[arrayLen];
-        Uint uint = new Uint(intType.bitLength);
         for (int i = 0; i < arrayLen; i++) {
             int signed = getPackedInt(buffer, idx, elementLen);
-            ints[i] = intType.unsigned ? (int) uint.toUnsignedLong(signed) : signed;
+            ints[i] = uint != null ? (int) uint.toUnsignedLong(signed) : signed;
             idx += elementLen;
         }
         return ints;
     }
 
-    private static long[] decodeLongArray(LongType longType, int elementLen, int arrayLen, byte[] buffer, int idx) {
+    private static long[] decodeLongArray(Layout element, int arrayLen, byte[] buffer, int idx) {
+        final int elementLen = element.len;
+        final Uint uint = element.uint;
         long[] longs = new long[arrayLen];
-        Uint uint = new Uint(longType.bitLength);
         for (int i = 0; i < arrayLen; i++) {
             long signed = getPackedLong(buffer, idx, elementLen);
-            longs[i] = longType.unsigned ? uint.toUnsignedLong(signed) : signed;
+            longs[i] = uint != null ? uint.toUnsignedLong(signed) : signed;
             idx += elementLen;
         }
         return longs;
     }
 
-    private static BigInteger[] decodeBigIntegerArray(int elementLen, int arrayLen, byte[] buffer, int idx) {
-        BigInteger[] bigInts = new BigInteger[arrayLen];
-        for (int i = 0; i < arrayLen; i++) {
-            bigInts[i] = new BigInteger(Arrays.copyOfRange(buffer, idx, idx + elementLen));
-            idx += elementLen;
-        }
-        return bigInts;
-    }
-
-    private static BigDecimal[] decodeBigDecimalArray(int elementLen, int scale, int arrayLen, byte[] buffer, int idx) {
-        BigDecimal[] bigDecimals = new BigDecimal[arrayLen];
-        for (int i = 0; i < arrayLen; i++) {
-            bigDecimals[i] = new BigDecimal(new BigInteger(Arrays.copyOfRange(buffer, idx, idx + elementLen)), scale);
-            idx += elementLen;
-        }
-        return bigDecimals;
-    }
-
-    private static Object[] decodeObjectArray(int arrayLen, ABIType<?> elementType, byte[] buffer, int idx, int end) {
-        Object[] objects = (Object[]) Array.newInstance(elementType.clazz, arrayLen); // reflection ftw
-        for (int i = 0; i < arrayLen; i++) {
-            int len = decode(elementType, buffer, idx, end, objects, i);
-            idx += len;
-            end -= len;
-        }
-        return objects;
-    }
-
     static int getPackedInt(byte[] buffer, int i, int len) {
         int shiftAmount = 0;
         int val = 0;
@@ -16,6 +16,7 @@
 package com.esaulpaugh.headlong.abi;
 
 import com.esaulpaugh.headlong.abi.util.BizarroIntegers;
+import com.esaulpaugh.headlong.abi.util.Uint256;
 import com.esaulpaugh.headlong.util.Integers;
 
 import java.math.BigDecimal;
@@ -45,7 +46,7 @@ final class PackedEncoder {
         case TYPE_CODE_BYTE:
         case TYPE_CODE_INT:
         case TYPE_CODE_LONG: encodeInt(((Number) value).longValue(), type.byteLengthPacked(null), dest); return;
-        case TYPE_CODE_BIG_INTEGER: Encoding.insertInt(((BigInteger) value), type.byteLengthPacked(null), dest); return;
+        case TYPE_CODE_BIG_INTEGER: encodeBigInteger(value, type.byteLengthPacked(null), dest); return;
         case TYPE_CODE_BIG_DECIMAL: Encoding.insertInt(((BigDecimal) value).unscaledValue(), type.byteLengthPacked(null), dest); return;
         case TYPE_CODE_ARRAY: encodeArray((ArrayType<? extends ABIType<?>, ?>) type, value, dest); return;
         case TYPE_CODE_TUPLE: encodeTuple((TupleType) type, (Tuple) value, dest); return;
@@ -60,7 +61,7 @@ final class PackedEncoder {
         case TYPE_CODE_BYTE: dest.put((byte[]) arrayType.decodeIfString(value)); return;
         case TYPE_CODE_INT: encodeInts((int[]) value, elementType.byteLengthPacked(null), dest); return;
         case TYPE_CODE_LONG: encodeLongs((long[]) value, elementType.byteLengthPacked(null), dest); return;
-        case TYPE_CODE_BIG_INTEGER: Encoding.insertBigIntegers((BigInteger[]) value, elementType.byteLengthPacked(null), dest); return;
+        case TYPE_CODE_BIG_INTEGER: encodeBigIntegers((Number[]) value, elementType.byteLengthPacked(null), dest); return;
         case TYPE_CODE_BIG_DECIMAL: Encoding.insertBigDecimals((BigDecimal[]) value, elementType.byteLengthPacked(null), dest); return;
         case TYPE_CODE_ARRAY:
         case TYPE_CODE_TUPLE:
@@ -72,6 +73,55 @@ final class PackedEncoder {
         }
     }
 
+    static void encodeTuple(TupleType tupleType, Tuple tuple, ByteSink sink) {
+        for (int i = 0; i < tupleType.elementTypes.length; i++) {
+            encode(tupleType.elementTypes[i], tuple.elements[i], sink);
+        }
+    }
+
+    private static void encode(ABIType<?> type, Object value, ByteSink sink) {
+        switch (type.typeCode()) {
+        case TYPE_CODE_ARRAY: encodeArray((ArrayType<? extends ABIType<?>, ?>) type, value, sink); return;
+        case TYPE_CODE_TUPLE: encodeTuple((TupleType) type, (Tuple) value, sink); return;
+        default: encode(type, value, sink.reserve(type.byteLengthPacked(null)));
+        }
+    }
+
+    private static void encodeArray(ArrayType<? extends ABIType<?>, ?> arrayType, Object value, ByteSink sink) {
+        final ABIType<?> elementType = arrayType.elementType;
+        if(elementType.typeCode() == TYPE_CODE_BYTE) {
+            sink.put((byte[]) arrayType.decodeIfString(value));
+            return;
+        }
+        final int byteLen = arrayType.byteLengthPacked(value);
+        if(byteLen <= ByteSink.CAPACITY) {
+            encodeArray(arrayType, value, sink.reserve(byteLen));
+            return;
+        }
+        final int typeCode = elementType.typeCode();
+        if(typeCode == TYPE_CODE_ARRAY || typeCode == TYPE_CODE_TUPLE) {
+            for(Object e : (Object[]) value) {
+                encode(elementType, e, sink);
+            }
+            return;
+        }
+        final int elementLen = elementType.byteLengthPacked(null);
+        switch (typeCode) {
+        case TYPE_CODE_BOOLEAN: for (boolean e : (boolean[]) value) encodeBoolean(e, sink.reserve(1)); return;
+        case TYPE_CODE_INT: for (int e : (int[]) value) encodeInt(e, elementLen, sink.reserve(elementLen)); return;
+        case TYPE_CODE_LONG: for (long e : (long[]) value) encodeInt(e, elementLen, sink.reserve(elementLen)); return;
+        case TYPE_CODE_BIG_INTEGER: for (Number e : (Number[]) value) encodeBigInteger(e, elementLen, sink.reserve(elementLen)); return;
+        case TYPE_CODE_BIG_DECIMAL: for (BigDecimal e : (BigDecimal[]) value) Encoding.insertInt(e.unscaledValue(), elementLen, sink.reserve(elementLen)); return;
+        default: throw new Error();
+        }
+    }
+
+    private static void encodeBigIntegers(Number[] arr, int byteLen, ByteBuffer dest) {
+        for (Number e : arr) {
+            encodeBigInteger(e, byteLen, dest);
+        }
+    }
+
     private static void encodeBooleans(boolean[] arr, ByteBuffer dest) {
         for (boolean bool : arr) {
             encodeBoolean(bool, dest);
@@ -94,6 +144,14 @@ final class PackedEncoder {
         dest.put(value ? Encoding.ONE_BYTE : Encoding.ZERO_BYTE);
     }
 
+    private static void encodeBigInteger(Object value, int byteLen, ByteBuffer dest) {
+        if(value instanceof Uint256) {
+            ((Uint256) value).put(dest, byteLen);
+        } else {
+            Encoding.insertInt((BigInteger) value, byteLen, dest);
+        }
+    }
+
     private static void encodeInt(long value, int byteLen, ByteBuffer dest) {
         if(value >= 0) {
             Encoding.insertPadding(byteLen - Integers.len(value), false, dest);
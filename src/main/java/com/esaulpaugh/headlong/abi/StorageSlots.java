@@ -0,0 +1,204 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.abi;
+
+import com.esaulpaugh.headlong.abi.util.Uint256;
+import com.joemelsha.crypto.hash.Keccak256;
+
+import java.nio.ByteBuffer;
+
+import static com.esaulpaugh.headlong.abi.UnitType.UNIT_LENGTH_BYTES;
+
+/**
+ * Computes the storage slots of Solidity state variables. A slot is represented as 32 big-endian bytes. Mapping keys
+ * are encoded per their {@link ABIType}: value types as by {@code abi.encode} and {@code bytes} and {@code string}
+ * unpadded. Batched lookups hash up to eight same-length preimages at a time via {@link Keccak256#hashAll} and write
+ * the slots back to back into the caller's buffer.
+ */
+public final class StorageSlots {
+
+    public static final int SLOT_LEN = UNIT_LENGTH_BYTES;
+
+    private static final int BATCH_SIZE = 8;
+    private static final int PAIR_LEN = SLOT_LEN + SLOT_LEN;
+
+    private static final ThreadLocal<ByteBuffer> SCRATCH = ThreadLocal.withInitial(() -> ByteBuffer.allocate(BATCH_SIZE * PAIR_LEN));
+
+    private StorageSlots() {}
+
+    /**
+     * @param n the index of a top-level state variable's slot
+     * @return  the slot
+     */
+    public static byte[] slot(long n) {
+        return toSlot(Uint256.valueOf(n));
+    }
+
+    /**
+     * @param keyType   the mapping's key type
+     * @param key       the key
+     * @param slot      the mapping's slot
+     * @return  the slot of the value at {@code key}, i.e. {@code keccak256(h(key) ++ slot)}
+     */
+    public static byte[] mapping(ABIType<?> keyType, Object key, byte[] slot) {
+        final byte[] out = new byte[SLOT_LEN];
+        mapping(keyType, new Object[] { key }, slot, out, 0);
+        return out;
+    }
+
+    /**
+     * Computes the slots of many keys of one mapping.
+     *
+     * @param keyType   the mapping's key type
+     * @param keys      the keys
+     * @param slot      the mapping's slot
+     * @param out       the buffer to which to write {@code keys.length} slots
+     * @param outOff    the offset at which to write the first slot
+     */
+    public static void mapping(ABIType<?> keyType, Object[] keys, byte[] slot, byte[] out, int outOff) {
+        checkSlot(slot, 0);
+        mapping(keyType, keys, slot, 0, 0, out, outOff);
+    }
+
+    /**
+     * Computes the slot of each key in its own mapping, e.g. the second level of a nested mapping, whose parent slots
+     * are the output of a previous batch.
+     *
+     * @param keyType   the mappings' key type
+     * @param keys      the keys
+     * @param slots     the mappings' slots, one per key, back to back
+     * @param slotsOff  the offset of the first mapping's slot
+     * @param out       the buffer to which to write {@code keys.length} slots
+     * @param outOff    the offset at which to write the first slot
+     */
+    public static void mapping(ABIType<?> keyType, Object[] keys, byte[] slots, int slotsOff, byte[] out, int outOff) {
+        if (keys.length > 0) {
+            checkSlot(slots, slotsOff);
+            checkSlot(slots, slotsOff + (keys.length - 1) * SLOT_LEN);
+        }
+        mapping(keyType, keys, slots, slotsOff, SLOT_LEN, out, outOff);
+    }
+
+    private static void mapping(ABIType<?> keyType, Object[] keys, byte[] slots, int slotsOff, int slotsStride, byte[] out, int outOff) {
+        checkKeyType(keyType);
+        if (outOff < 0 || outOff > out.length - keys.length * SLOT_LEN) {
+            throw new IndexOutOfBoundsException("out length " + out.length + " too small for " + keys.length + " slots at offset " + outOff);
+        }
+        if (keyType.dynamic) {
+            mappingDynamic((ArrayType<?, ?>) keyType, keys, slots, slotsOff, slotsStride, out, outOff);
+            return;
+        }
+        final ByteBuffer scratch = SCRATCH.get();
+        final byte[] preimages = scratch.array();
+        for (int i = 0; i < keys.length; i += BATCH_SIZE) {
+            final int batch = Math.min(BATCH_SIZE, keys.length - i);
+            scratch.clear();
+            for (int j = 0; j < batch; j++) {
+                final Object key = keys[i + j];
+                keyType.validate(key);
+                keyType.encodeHead(key, scratch, 0);
+                scratch.put(slots, slotsOff + (i + j) * slotsStride, SLOT_LEN);
+            }
+            Keccak256.hashAll(preimages, 0, PAIR_LEN, batch, out, outOff + i * SLOT_LEN);
+        }
+    }
+
+    private static void mappingDynamic(ArrayType<?, ?> keyType, Object[] keys, byte[] slots, int slotsOff, int slotsStride, byte[] out, int outOff) {
+        byte[] preimage = SCRATCH.get().array();
+        for (int i = 0; i < keys.length; i++) {
+            final Object key = keys[i];
+            keyType.validate(key);
+            final byte[] bytes = (byte[]) keyType.decodeIfString(key);
+            final int len = bytes.length + SLOT_LEN;
+            if (len > preimage.length) {
+                preimage = new byte[len];
+            }
+            System.arraycopy(bytes, 0, preimage, 0, bytes.length);
+            System.arraycopy(slots, slotsOff + i * slotsStride, preimage, bytes.length, SLOT_LEN);
+            Keccak256.hash(preimage, 0, len, out, outOff + i * SLOT_LEN);
+        }
+    }
+
+    /**
+     * @param slot  a dynamic array's slot
+     * @return  the slot of the array's first element, i.e. {@code keccak256(slot)}
+     */
+    public static byte[] arrayStart(byte[] slot) {
+        checkSlot(slot, 0);
+        final byte[] out = new byte[SLOT_LEN];
+        Keccak256.hash(slot, 0, SLOT_LEN, out, 0);
+        return out;
+    }
+
+    /**
+     * @param slot              a dynamic array's slot
+     * @param index             the index of the element
+     * @param slotsPerElement   the number of slots each element occupies, e.g. 1 for {@code uint256}, 2 for a struct of
+     *                          two {@code uint256}
+     * @return  the slot of the element's first word
+     */
+    public static byte[] arrayElement(byte[] slot, long index, int slotsPerElement) {
+        if (index < 0) {
+            throw new IllegalArgumentException("index is negative: " + index);
+        }
+        if (slotsPerElement <= 0) {
+            throw new IllegalArgumentException("slotsPerElement must be positive: " + slotsPerElement);
+        }
+        return toSlot(toUint256(arrayStart(slot)).add(Uint256.valueOf(index).multiply(Uint256.valueOf(slotsPerElement))));
+    }
+
+    /**
+     * @param slot      a struct's slot
+     * @param offset    the member's offset in slots from the start of the struct
+     * @return  the member's slot, wrapping mod 2^256
+     */
+    public static byte[] offset(byte[] slot, long offset) {
+        checkSlot(slot, 0);
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset is negative: " + offset);
+        }
+        return toSlot(toUint256(slot).add(Uint256.valueOf(offset)));
+    }
+
+    private static Uint256 toUint256(byte[] slot) {
+        return Uint256.get(ByteBuffer.wrap(slot));
+    }
+
+    private static byte[] toSlot(Uint256 val) {
+        final ByteBuffer bb = ByteBuffer.allocate(SLOT_LEN);
+        val.put(bb);
+        return bb.array();
+    }
+
+    private static void checkKeyType(ABIType<?> keyType) {
+        if (keyType instanceof UnitType) {
+            return;
+        }
+        if (keyType instanceof ArrayType) {
+            final ArrayType<?, ?> at = (ArrayType<?, ?>) keyType;
+            if (at.getElementType().typeCode() == ABIType.TYPE_CODE_BYTE && (at.dynamic || at.getLength() <= SLOT_LEN)) {
+                return;
+            }
+        }
+        throw new IllegalArgumentException("illegal mapping key type: " + keyType.canonicalType);
+    }
+
+    private static void checkSlot(byte[] slots, int off) {
+        if (off < 0 || off > slots.length - SLOT_LEN) {
+            throw new IllegalArgumentException("slot must be " + SLOT_LEN + " bytes at offset " + off + " but array length is " + slots.length);
+        }
+    }
+}
@@ -18,10 +18,22 @@ package com.esaulpaugh.headlong.abi;
 import com.esaulpaugh.headlong.util.Integers;
 import com.esaulpaugh.headlong.util.Strings;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 import static com.esaulpaugh.headlong.abi.Encoding.OFFSET_LENGTH_BYTES;
 import static com.esaulpaugh.headlong.abi.UnitType.UNIT_LENGTH_BYTES;
@@ -34,13 +46,21 @@ public final class TupleType extends ABIType<Tuple> implements Iterable<ABIType<
 
     private static final String EMPTY_TUPLE_STRING = "()";
 
+    private static final int DECODE_ALL_CHUNK_SIZE = 256;
+
     public static final TupleType EMPTY = new TupleType(EMPTY_TUPLE_STRING, false, EMPTY_TYPE_ARRAY);
 
     final ABIType<?>[] elementTypes;
+    /* the position of each element's head relative to the start of the encoding; the last entry is the total head length */
+    final int[] headOffsets;
+    PackedDecoder.Layout packedLayout; // compiled on first packed decode
+    private final int headLength;
 
     private TupleType(String canonicalType, boolean dynamic, ABIType<?>[] elementTypes) {
         super(canonicalType, Tuple.class, dynamic);
         this.elementTypes = elementTypes;
+        this.headOffsets = headOffsets(elementTypes);
+        this.headLength = headOffsets[elementTypes.length];
     }
 
     static <E extends ABIType<?>> TupleType wrap(E[] elements) {
@@ -75,8 +95,15 @@ public final class TupleType extends ABIType<Tuple> implements Iterable<ABIType<
         return TYPE_CODE_TUPLE;
     }
 
+    /**
+     * @param value the Tuple being measured. {@code null} if not available, in which case this type must be static
+     * @return the length in bytes of the standard encoding
+     */
     @Override
     int byteLength(Object value) {
+        if (value == null) {
+            return headLength;
+        }
         final Object[] elements = ((Tuple) value).elements;
         int len = 0;
         for (int i = 0; i < elementTypes.length; i++) {
@@ -114,18 +141,31 @@ public final class TupleType extends ABIType<Tuple> implements Iterable<ABIType<
 
     @Override
     public int validate(final Object value) {
+        return validate(value, null);
+    }
+
+    @Override
+    int validate(final Object value, final EncodePlan plan) {
         validateClass(value);
 
         final Object[] elements = ((Tuple) value).elements;
 
         if(elements.length == elementTypes.length) {
+            final int slot = plan != null && dynamic ? plan.reserve(elementTypes.length) : -1;
             int i = 0;
             try {
                 int len = 0;
                 for (; i < elementTypes.length; i++) {
                     ABIType<?> type = elementTypes[i];
-                    int byteLen = type.validate(elements[i]);
-                    len += !type.dynamic ? byteLen : OFFSET_LENGTH_BYTES + byteLen;
+                    int byteLen = type.validate(elements[i], plan);
+                    if(!type.dynamic) {
+                        len += byteLen;
+                    } else {
+                        len += OFFSET_LENGTH_BYTES + byteLen;
+                        if(slot >= 0) {
+                            plan.set(slot + i, byteLen);
+                        }
+                    }
                 }
                 return len;
             } catch (NullPointerException | IllegalArgumentException e) {
@@ -135,6 +175,26 @@ public final class TupleType extends ABIType<Tuple> implements Iterable<ABIType<
         throw new IllegalArgumentException("tuple length mismatch: actual != expected: " + elements.length + " != " + elementTypes.length);
     }
 
+    @Override
+    int measure(Object value, EncodePlan plan) {
+        if(!dynamic) {
+            return headLength;
+        }
+        final Object[] elements = ((Tuple) value).elements;
+        final ABIType<?>[] types = elementTypes;
+        final int slot = plan.reserve(types.length);
+        int len = headLength;
+        for (int i = 0; i < types.length; i++) {
+            ABIType<?> t = types[i];
+            if(t.dynamic) {
+                int byteLen = t.measure(elements[i], plan);
+                plan.set(slot + i, byteLen);
+                len += byteLen;
+            }
+        }
+        return len;
+    }
+
     @Override
     void encodeTail(Object value, ByteBuffer dest) {
         final Object[] values = ((Tuple) value).elements;
@@ -143,7 +203,7 @@ public final class TupleType extends ABIType<Tuple> implements Iterable<ABIType<
             return;
         }
         final ABIType<?>[] types = elementTypes;
-        encodeHeads(types, values, dest, headLengthSum(types, values));
+        encodeHeads(types, values, dest, headLength);
         for (int i = 0; i < types.length; i++) {
             ABIType<?> t = types[i];
             if(t.dynamic) {
@@ -152,19 +212,74 @@ public final class TupleType extends ABIType<Tuple> implements Iterable<ABIType<
         }
     }
 
+    @Override
+    void encodeTail(Object value, ByteBuffer dest, EncodePlan plan) {
+        if(!dynamic) {
+            encodeTail(value, dest);
+            return;
+        }
+        final Object[] values = ((Tuple) value).elements;
+        final ABIType<?>[] types = elementTypes;
+        final int slot = plan.consume(types.length);
+        int nextOffset = headLength;
+        for (int i = 0; i < types.length; i++) {
+            ABIType<?> t = types[i];
+            nextOffset = !t.dynamic
+                    ? t.encodeHead(values[i], dest, nextOffset)
+                    : Encoding.insertOffset(nextOffset, dest, plan.get(slot + i));
+        }
+        for (int i = 0; i < types.length; i++) {
+            ABIType<?> t = types[i];
+            if(t.dynamic) {
+                t.encodeTail(values[i], dest, plan);
+            }
+        }
+    }
+
+    @Override
+    void encodeTail(Object value, ByteSink sink, EncodePlan plan) {
+        final Object[] values = ((Tuple) value).elements;
+        final ABIType<?>[] types = elementTypes;
+        if(!dynamic) {
+            for (int i = 0; i < types.length; i++) {
+                types[i].encodeTail(values[i], sink, plan);
+            }
+            return;
+        }
+        final int slot = plan.consume(types.length);
+        int nextOffset = headLength;
+        for (int i = 0; i < types.length; i++) {
+            ABIType<?> t = types[i];
+            if(!t.dynamic) {
+                t.encodeTail(values[i], sink, plan);
+            } else {
+                nextOffset = Encoding.insertOffset(nextOffset, sink.reserve(OFFSET_LENGTH_BYTES), plan.get(slot + i));
+            }
+        }
+        for (int i = 0; i < types.length; i++) {
+            ABIType<?> t = types[i];
+            if(t.dynamic) {
+                t.encodeTail(values[i], sink, plan);
+            }
+        }
+    }
+
     private static void encodeHeads(ABIType<?>[] types, Object[] values, ByteBuffer dest, int nextOffset) {
         for (int i = 0; i < types.length; i++) {
             nextOffset = types[i].encodeHead(values[i], dest, nextOffset);
         }
     }
 
-    private static int headLengthSum(ABIType<?>[] types, Object[] elements) {
+    private static int[] headOffsets(ABIType<?>[] types) {
+        final int[] offsets = new int[types.length + 1];
         int sum = 0;
         for (int i = 0; i < types.length; i++) {
+            offsets[i] = sum;
             ABIType<?> type = types[i];
-            sum += !type.dynamic ? type.byteLength(elements[i]) : OFFSET_LENGTH_BYTES;
+            sum += !type.dynamic ? type.byteLength(null) : OFFSET_LENGTH_BYTES;
         }
-        return sum;
+        offsets[types.length] = sum;
+        return offsets;
     }
 
     public Tuple decode(byte[] array) {
@@ -181,13 +296,284 @@ public final class TupleType extends ABIType<Tuple> implements Iterable<ABIType<
         return decode(bb, newUnitBuffer());
     }
 
+    /**
+     * Decodes many payloads of this type in order, reusing scratch state across the batch.
+     *
+     * @param payloads  the encoded payloads, each of which must be consumed entirely
+     * @return  the decoded values, in the order of {@code payloads}
+     * @throws IllegalArgumentException if any payload is malformed, identifying its index
+     */
+    public List<Tuple> decodeAll(List<byte[]> payloads) {
+        return decodeAll(payloads, null);
+    }
+
+    /**
+     * Like {@link #decodeAll(List)} but, if {@code executor} is non-null, decodes chunks of the batch concurrently. The
+     * results are in the order of {@code payloads} regardless.
+     *
+     * @param payloads  the encoded payloads, each of which must be consumed entirely
+     * @param executor  the executor on which to decode chunks, or null to decode on the calling thread
+     * @return  the decoded values, in the order of {@code payloads}
+     * @throws IllegalArgumentException if any payload is malformed, identifying its index
+     */
+    public List<Tuple> decodeAll(List<byte[]> payloads, Executor executor) {
+        final ByteBuffer[] buffers = new ByteBuffer[payloads.size()];
+        int i = 0;
+        for (byte[] payload : payloads) {
+            buffers[i++] = ByteBuffer.wrap(payload);
+        }
+        final Tuple[] out = new Tuple[buffers.length];
+        decodeAll(buffers, out, executor, true);
+        return Arrays.asList(out);
+    }
+
+    /**
+     * Decodes each buffer from its current position into the corresponding index of {@code out}, as by
+     * {@link #decode(ByteBuffer)}, reusing scratch state across the batch.
+     *
+     * @param payloads  the buffers containing the encoded data
+     * @param out       the destination for the decoded values
+     */
+    public void decodeAll(ByteBuffer[] payloads, Tuple[] out) {
+        decodeAll(payloads, out, null, false);
+    }
+
+    /**
+     * Like {@link #decodeAll(ByteBuffer[], Tuple[])} but, if {@code executor} is non-null, decodes chunks of the batch
+     * concurrently. Each buffer is read by only one thread.
+     *
+     * @param payloads  the buffers containing the encoded data
+     * @param out       the destination for the decoded values
+     * @param executor  the executor on which to decode chunks, or null to decode on the calling thread
+     * @throws IllegalArgumentException if any payload is malformed, identifying its index
+     */
+    public void decodeAll(ByteBuffer[] payloads, Tuple[] out, Executor executor) {
+        decodeAll(payloads, out, executor, false);
+    }
+
+    private void decodeAll(ByteBuffer[] payloads, Tuple[] out, Executor executor, boolean strict) {
+        final int n = payloads.length;
+        if(out.length < n) {
+            throw new IndexOutOfBoundsException("out length " + out.length + " too small for " + n + " payloads");
+        }
+        if(executor == null || n <= DECODE_ALL_CHUNK_SIZE) {
+            decodeRange(payloads, out, 0, n, strict);
+            return;
+        }
+        final CompletableFuture<?>[] chunks = new CompletableFuture<?>[(n + DECODE_ALL_CHUNK_SIZE - 1) / DECODE_ALL_CHUNK_SIZE];
+        for (int c = 0; c < chunks.length; c++) {
+            final int from = c * DECODE_ALL_CHUNK_SIZE;
+            final int to = Math.min(n, from + DECODE_ALL_CHUNK_SIZE);
+            chunks[c] = CompletableFuture.runAsync(() -> decodeRange(payloads, out, from, to, strict), executor);
+        }
+        try {
+            CompletableFuture.allOf(chunks).join();
+        } catch (CompletionException ce) {
+            final Throwable cause = ce.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : ce;
+        }
+    }
+
+    private void decodeRange(ByteBuffer[] payloads, Tuple[] out, int from, int to, boolean strict) {
+        final byte[] unitBuffer = newUnitBuffer();
+        for (int i = from; i < to; i++) {
+            final ByteBuffer bb = payloads[i];
+            try {
+                out[i] = decode(bb, unitBuffer, false);
+                if(strict && bb.hasRemaining()) {
+                    throw new IllegalArgumentException("unconsumed bytes: " + bb.remaining() + " remaining");
+                }
+            } catch (IllegalArgumentException iae) {
+                throw new IllegalArgumentException("payload " + i + ": " + iae.getMessage(), iae);
+            } catch (BufferUnderflowException bue) {
+                throw new IllegalArgumentException("payload " + i + ": not enough bytes", bue);
+            }
+        }
+    }
+
+    /**
+     * Decodes the data at the buffer's current position. If {@code uint256} is true, values of unsigned integer types
+     * mapped to {@link java.math.BigInteger} (uint64 through uint256, and address) are instead decoded as
+     * {@link com.esaulpaugh.headlong.abi.util.Uint256}, including within arrays and nested tuples.
+     *
+     * @param bb      the buffer containing the encoded data
+     * @param uint256 whether to decode unsigned big integers as {@code Uint256}
+     * @return the decoded values
+     */
+    public Tuple decode(ByteBuffer bb, boolean uint256) {
+        return decode(bb, newUnitBuffer(), uint256);
+    }
+
+    /**
+     * Like {@link #decode(byte[])} but decodes arrays of at least {@link ArrayType#PARALLEL_DECODE_THRESHOLD} dynamic
+     * elements, such as the results of a large multicall, in parallel using {@code pool}. Element regions are located
+     * via the arrays' offset tables, which must be consistent with a sequential decoding.
+     *
+     * @param array the encoded data
+     * @param pool  the pool in which to decode large arrays
+     * @return the decoded values
+     */
+    public Tuple decode(byte[] array, ForkJoinPool pool) {
+        ByteBuffer bb = ByteBuffer.wrap(array);
+        Tuple decoded = decode(bb, pool);
+        final int remaining = bb.remaining();
+        if(remaining == 0) {
+            return decoded;
+        }
+        throw new IllegalArgumentException("unconsumed bytes: " + remaining + " remaining");
+    }
+
+    public Tuple decode(ByteBuffer bb, ForkJoinPool pool) {
+        return decode(bb, newUnitBuffer(), false, pool);
+    }
+
     @Override
     Tuple decode(ByteBuffer bb, byte[] unitBuffer) {
+        return decode(bb, unitBuffer, false);
+    }
+
+    /**
+     * Returns a view of the encoded tuple beginning at the array's first byte in which each element is decoded only when
+     * first accessed. The array is not copied.
+     *
+     * @param array the encoded data
+     * @return  the lazily decoded values
+     * @see #decodeLazy(ByteBuffer)
+     */
+    public LazyTuple decodeLazy(byte[] array) {
+        return decodeLazy(ByteBuffer.wrap(array));
+    }
+
+    /**
+     * Returns a view of the encoded tuple beginning at the buffer's current position in which each element is decoded
+     * only when first accessed, then cached. The buffer's content is shared, not copied, and its position is not
+     * advanced. Changes to the content made before an element is first accessed will be visible in that element.
+     *
+     * @param bb    the buffer containing the encoded data
+     * @return  the lazily decoded values
+     */
+    public LazyTuple decodeLazy(ByteBuffer bb) {
+        final ByteBuffer slice = bb.slice();
+        if(slice.remaining() < headLength) {
+            throw new IllegalArgumentException("not enough bytes remaining: " + slice.remaining() + " < " + headLength);
+        }
+        return new LazyTuple(this, slice);
+    }
+
+    /**
+     * Decodes the element at the given index of the tuple whose encoding begins at position zero of {@code bb}, leaving
+     * the buffer's position at the end of the element's encoding.
+     */
+    Object decodeElement(int index, ByteBuffer bb, byte[] unitBuffer) {
+        final ABIType<?> elementType = elementTypes[index];
+        bb.position(locate(bb, 0, headOffsets[index], elementType.dynamic, unitBuffer));
+        return elementType.decode(bb, unitBuffer);
+    }
+
+    /**
+     * Decodes a single value nested within the tuple encoded at the buffer's current position without decoding any
+     * other values. Each index in the path selects an element of the current tuple or array, e.g. the path {@code 3, 2}
+     * selects element 2 of the array which is element 3 of this tuple. Heads are located directly and offsets are
+     * followed for dynamic types. The buffer's position is left at the end of the selected value's encoding.
+     *
+     * @param bb    the buffer containing the encoded tuple
+     * @param path  the index of the element at each level of nesting
+     * @return  the decoded value
+     */
+    public Object decodeElement(ByteBuffer bb, int... path) {
+        final byte[] unitBuffer = newUnitBuffer();
+        return select(bb, path, unitBuffer).decode(bb, unitBuffer);
+    }
+
+    /**
+     * Streams the elements of an array nested within the tuple encoded at the buffer's current position, decoding one
+     * element at a time so that the array is never materialized in full.
+     *
+     * @param bb        the buffer containing the encoded tuple
+     * @param action    the action to perform on each element, in order
+     * @param path      the index path to the array, as in {@link #decodeElement(ByteBuffer, int...)}
+     * @see ArrayType#forEachElement(ByteBuffer, Consumer)
+     */
+    public void forEachElement(ByteBuffer bb, Consumer<Object> action, int... path) {
+        final byte[] unitBuffer = newUnitBuffer();
+        final ABIType<?> type = select(bb, path, unitBuffer);
+        if(type instanceof ArrayType) {
+            ((ArrayType<?, ?>) type).forEachElement(bb, action, unitBuffer);
+            return;
+        }
+        throw new IllegalArgumentException("not an array: " + type.canonicalType);
+    }
+
+    /* positions the buffer at the encoding of the value at the given path and returns the value's type */
+    private ABIType<?> select(ByteBuffer bb, int[] path, byte[] unitBuffer) {
+        if(path.length == 0) {
+            throw new IllegalArgumentException("path is empty");
+        }
+        ABIType<?> type = this;
+        int start = bb.position();
+        for (int index : path) {
+            final ABIType<?> elementType;
+            final int headOffset;
+            switch (type.typeCode()) {
+            case TYPE_CODE_TUPLE: {
+                final TupleType tupleType = (TupleType) type;
+                checkIndex(index, tupleType.elementTypes.length);
+                elementType = tupleType.elementTypes[index];
+                headOffset = tupleType.headOffsets[index];
+                break;
+            }
+            case TYPE_CODE_ARRAY: {
+                final ArrayType<?, ?> arrayType = (ArrayType<?, ?>) type;
+                elementType = arrayType.elementType;
+                if(elementType.typeCode() == TYPE_CODE_BYTE) {
+                    throw new IllegalArgumentException("can't select element of " + arrayType.canonicalType);
+                }
+                int len = arrayType.length;
+                if(len == ArrayType.DYNAMIC_LENGTH) {
+                    bb.position(start);
+                    len = ArrayType.ARRAY_LENGTH_TYPE.decode(bb, unitBuffer);
+                    start += UNIT_LENGTH_BYTES;
+                }
+                checkIndex(index, len);
+                headOffset = index * (elementType.dynamic ? OFFSET_LENGTH_BYTES : elementType.byteLength(null));
+                break;
+            }
+            default: throw new IllegalArgumentException("path too long: can't select element of " + type.canonicalType);
+            }
+            start = locate(bb, start, headOffset, elementType.dynamic, unitBuffer);
+            type = elementType;
+        }
+        bb.position(start);
+        return type;
+    }
+
+    private static void checkIndex(int index, int len) {
+        if(index < 0 || index >= len) {
+            throw new IllegalArgumentException("index out of bounds: " + index + " (length " + len + ")");
+        }
+    }
+
+    /* returns the position of the encoding of the element whose head begins at start + headOffset */
+    private static int locate(ByteBuffer bb, int start, int headOffset, boolean dynamic, byte[] unitBuffer) {
+        if(!dynamic) {
+            return start + headOffset;
+        }
+        bb.position(start + headOffset);
+        return start + Encoding.OFFSET_TYPE.decode(bb, unitBuffer);
+    }
+
+    @Override
+    Tuple decode(ByteBuffer bb, byte[] unitBuffer, boolean uint256) {
+        return decode(bb, unitBuffer, uint256, null);
+    }
+
+    @Override
+    Tuple decode(ByteBuffer bb, byte[] unitBuffer, boolean uint256, ForkJoinPool pool) {
         final int len = elementTypes.length;
         final Object[] elements = new Object[len];
         if (!dynamic) {
             for (int i = 0; i < len; i++) {
-                elements[i] = elementTypes[i].decode(bb, unitBuffer);
+                elements[i] = elementTypes[i].decode(bb, unitBuffer, uint256, pool);
             }
         } else {
 //        final int index = bb.position(); // *** save this value here if you want to support lenient mode below
@@ -195,7 +581,7 @@ public final class TupleType extends ABIType<Tuple> implements Iterable<ABIType<
             for (int i = 0; i < len; i++) {
                 ABIType<?> elementType = elementTypes[i];
                 if (!elementType.dynamic) {
-                    elements[i] = elementType.decode(bb, unitBuffer);
+                    elements[i] = elementType.decode(bb, unitBuffer, uint256, pool);
                 } else {
                     offsets[i] = Encoding.OFFSET_TYPE.decode(bb, unitBuffer);
                 }
@@ -207,7 +593,7 @@ public final class TupleType extends ABIType<Tuple> implements Iterable<ABIType<
 //                    System.err.println(TupleType.class.getName() + " setting " + bb.position() + " to " + (index + offset) + ", offset=" + offset);
 //                    bb.position(index + offset); // lenient
 //                }
-                    elements[i] = elementTypes[i].decode(bb, unitBuffer);
+                    elements[i] = elementTypes[i].decode(bb, unitBuffer, uint256, pool);
                 }
             }
         }
@@ -231,14 +617,88 @@ public final class TupleType extends ABIType<Tuple> implements Iterable<ABIType<
     }
 
     public ByteBuffer encode(Tuple values) {
-        ByteBuffer dest = ByteBuffer.allocate(validate(values));
-        encodeTail(values, dest);
+        return encode(values, new EncodePlan());
+    }
+
+    /**
+     * Gives the ABI encoding of {@code values}, memoizing the byte lengths of dynamic sub-values in {@code plan} during
+     * validation so that each value is measured only once.
+     *
+     * @param values the values to be encoded
+     * @param plan   a plan, which will be reset and may be reused afterwards
+     * @return the encoding
+     */
+    public ByteBuffer encode(Tuple values, EncodePlan plan) {
+        ByteBuffer dest = ByteBuffer.allocate(validate(values, plan.reset()));
+        encodeTail(values, dest, plan);
         return dest;
     }
 
     public TupleType encode(Tuple values, ByteBuffer dest) {
-        validate(values);
-        encodeTail(values, dest);
+        return encode(values, dest, new EncodePlan());
+    }
+
+    public TupleType encode(Tuple values, ByteBuffer dest, EncodePlan plan) {
+        validate(values, plan.reset());
+        encodeTail(values, dest, plan);
+        return this;
+    }
+
+    /**
+     * Gives the ABI encoding of {@code values} without validating them. Intended for values known to be valid, such as
+     * those produced by a decoder; invalid values yield an undefined encoding or an unchecked exception.
+     *
+     * @param values the values to be encoded
+     * @return the encoding
+     * @see #encode(Tuple)
+     */
+    public ByteBuffer encodeTrusted(Tuple values) {
+        final EncodePlan plan = new EncodePlan();
+        ByteBuffer dest = ByteBuffer.allocate(measure(values, plan));
+        encodeTail(values, dest, plan);
+        return dest;
+    }
+
+    TupleType encodeTrusted(Tuple values, ByteBuffer dest, EncodePlan plan) {
+        measure(values, plan.reset());
+        encodeTail(values, dest, plan);
+        return this;
+    }
+
+    /**
+     * Gives the ABI encoding of {@code values}, filling the regions of arrays of at least
+     * {@link ArrayType#PARALLEL_ENCODE_THRESHOLD} elements in parallel using {@code pool}.
+     *
+     * @param values the values to be encoded
+     * @param pool   the pool in which to encode large arrays
+     * @return the encoding
+     * @see #encodeParallel(Tuple, ByteBuffer, ForkJoinPool, int)
+     */
+    public ByteBuffer encodeParallel(Tuple values, ForkJoinPool pool) {
+        final EncodePlan plan = new EncodePlan(pool, ArrayType.PARALLEL_ENCODE_THRESHOLD);
+        ByteBuffer dest = ByteBuffer.allocate(validate(values, plan));
+        encodeTail(values, dest, plan);
+        return dest;
+    }
+
+    /**
+     * Validates {@code values} and then puts their ABI encoding into {@code dest}. Each array of at least
+     * {@code threshold} elements is split into chunks which are validated concurrently and then written concurrently
+     * into disjoint regions of {@code dest} via duplicate views.
+     *
+     * @param values    the values to be encoded
+     * @param dest      the destination buffer
+     * @param pool      the pool in which to encode large arrays
+     * @param threshold the minimum number of elements for which an array is encoded in parallel
+     * @return this {@link TupleType}
+     */
+    public TupleType encodeParallel(Tuple values, ByteBuffer dest, ForkJoinPool pool, int threshold) {
+        if(threshold <= 0) {
+            throw new IllegalArgumentException("threshold must be positive");
+        }
+        final EncodePlan plan = new EncodePlan(pool, threshold);
+        validate(values, plan);
+        encodeTail(values, dest, plan);
         return this;
     }
 
@@ -270,6 +730,80 @@ public final class TupleType extends ABIType<Tuple> implements Iterable<ABIType<
         PackedEncoder.encodeTuple(this, values, dest);
     }
 
+    /**
+     * Feeds the ABI encoding of {@code values} to {@code digest} without materializing it, e.g. to compute
+     * {@code keccak256(abi.encode(...))}. The digest is updated but not completed.
+     *
+     * @param values the values to be encoded
+     * @param digest the digest to update
+     */
+    public void encodeInto(Tuple values, MessageDigest digest) {
+        encodeInto(values, digest, new EncodePlan());
+    }
+
+    void encodeInto(Tuple values, MessageDigest digest, EncodePlan plan) {
+        validate(values, plan.reset());
+        final ByteSink sink = new ByteSink(digest);
+        encodeTail(values, sink, plan);
+        sink.flush();
+    }
+
+    /**
+     * Feeds the non-standard packed encoding of {@code values} to {@code digest} without materializing it, e.g. to
+     * compute {@code keccak256(abi.encodePacked(...))}. The digest is updated but not completed.
+     *
+     * @param values the values to be encoded
+     * @param digest the digest to update
+     */
+    public void encodePackedInto(Tuple values, MessageDigest digest) {
+        validate(values);
+        final ByteSink sink = new ByteSink(digest);
+        PackedEncoder.encodeTuple(this, values, sink);
+        sink.flush();
+    }
+
+    /**
+     * Writes the ABI encoding of {@code values} to {@code channel} through a fixed-size, per-thread direct staging
+     * buffer, so that the full encoding is never materialized. Byte arrays larger than the staging buffer are written
+     * with a single gathering write if {@code channel} is a {@link GatheringByteChannel}.
+     *
+     * @param values  the values to be encoded
+     * @param channel the destination channel, which must be in blocking mode and is not closed
+     * @throws IOException if writing to the channel fails
+     * @throws IllegalArgumentException if {@code channel} is a non-blocking {@link java.nio.channels.SelectableChannel}
+     */
+    public void encodeToChannel(Tuple values, WritableByteChannel channel) throws IOException {
+        final EncodePlan plan = new EncodePlan();
+        validate(values, plan);
+        try {
+            final ByteSink sink = new ByteSink(channel);
+            encodeTail(values, sink, plan);
+            sink.flush();
+        } catch (UncheckedIOException uioe) {
+            throw uioe.getCause();
+        }
+    }
+
+    /**
+     * Writes the non-standard packed encoding of {@code values} to {@code channel} through a fixed-size, per-thread
+     * direct staging buffer.
+     *
+     * @param values  the values to be encoded
+     * @param channel the destination channel, which must be in blocking mode and is not closed
+     * @throws IOException if writing to the channel fails
+     * @see #encodeToChannel(Tuple, WritableByteChannel)
+     */
+    public void encodePackedToChannel(Tuple values, WritableByteChannel channel) throws IOException {
+        validate(values);
+        try {
+            final ByteSink sink = new ByteSink(channel);
+            PackedEncoder.encodeTuple(this, values, sink);
+            sink.flush();
+        } catch (UncheckedIOException uioe) {
+            throw uioe.getCause();
+        }
+    }
+
     @Override
     public Iterator<ABIType<?>> iterator() {
         return new Iterator<ABIType<?>>() {
@@ -17,6 +17,7 @@ package com.esaulpaugh.headlong.abi;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.esaulpaugh.headlong.abi.ArrayType.DYNAMIC_LENGTH;
 import static com.esaulpaugh.headlong.abi.BaseTypeInfo.DECIMAL_BIT_LEN;
@@ -24,16 +25,44 @@ import static com.esaulpaugh.headlong.abi.BaseTypeInfo.DECIMAL_SCALE;
 import static com.esaulpaugh.headlong.abi.BaseTypeInfo.FIXED_BIT_LEN;
 import static com.esaulpaugh.headlong.abi.BaseTypeInfo.FIXED_SCALE;
 
-/** Creates the appropriate {@link ABIType} object for a given type string. */
+/**
+ * Creates the appropriate {@link ABIType} object for a given type string. Nameless types, including the elements of all
+ * tuples and arrays not built from a named base type, are interned so that equal types share one instance.
+ */
 final class TypeFactory {
 
     private static final ABIType<BigInteger> CACHED_UINT_TYPE = new BigIntegerType("uint256", 256, true);
 
     private static final ClassLoader CLASS_LOADER = Thread.currentThread().getContextClassLoader();
 
+    /* when full, the cache is cleared before the next insertion */
+    private static final int CACHE_CAPACITY = 4096;
+
+    /* keyed by both raw and canonical type string. values are never named and therefore effectively immutable */
+    private static final ConcurrentHashMap<String, ABIType<?>> NAMELESS_TYPES = new ConcurrentHashMap<>(256);
+
     static ABIType<?> create(String rawType, String name) {
-        return buildType(rawType, null, name == null)
-                .setName(name);
+        return name == null
+                ? createNameless(rawType)
+                : buildType(rawType, null, false).setName(name);
+    }
+
+    private static ABIType<?> createNameless(String rawType) {
+        ABIType<?> type = NAMELESS_TYPES.get(rawType);
+        if(type == null) {
+            type = buildType(rawType, null, true);
+            if(NAMELESS_TYPES.size() >= CACHE_CAPACITY) {
+                NAMELESS_TYPES.clear();
+            }
+            final ABIType<?> existing = NAMELESS_TYPES.putIfAbsent(type.canonicalType, type);
+            if(existing != null) {
+                type = existing;
+            }
+            if(!rawType.equals(type.canonicalType)) {
+                NAMELESS_TYPES.putIfAbsent(rawType, type);
+            }
+        }
+        return type;
     }
 
     static ABIType<?> createFromBase(TupleType baseType, String typeSuffix, String name) {
@@ -49,7 +78,10 @@ final class TypeFactory {
                 final int secondToLastCharIndex = lastCharIndex - 1;
                 final int arrayOpenIndex = rawType.lastIndexOf('[', secondToLastCharIndex);
 
-                final ABIType<?> elementType = buildType(rawType.substring(0, arrayOpenIndex), baseType, nameless);
+                final String elementTypeStr = rawType.substring(0, arrayOpenIndex);
+                final ABIType<?> elementType = baseType == null
+                        ? createNameless(elementTypeStr) // only the outermost type is ever named
+                        : buildType(elementTypeStr, baseType, nameless);
                 final String type = elementType.canonicalType + rawType.substring(arrayOpenIndex);
                 final int length = arrayOpenIndex == secondToLastCharIndex ? DYNAMIC_LENGTH : parseLen(rawType, arrayOpenIndex + 1, lastCharIndex);
                 final boolean dynamic = length == DYNAMIC_LENGTH || elementType.dynamic;
@@ -255,7 +287,7 @@ final class TypeFactory {
                     argEnd = nextTerminator(rawTypeStr, argStart + 1);
                 }
                 if(argEnd >= 0) {
-                    elements.add(buildType(rawTypeStr.substring(argStart, argEnd), null, true));
+                    elements.add(createNameless(rawTypeStr.substring(argStart, argEnd)));
                     if(rawTypeStr.charAt(argEnd) == ',') {
                         argStart = argEnd + 1; // jump over terminator
                         continue;
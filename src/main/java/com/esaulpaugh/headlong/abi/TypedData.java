@@ -0,0 +1,419 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.abi;
+
+import com.esaulpaugh.headlong.util.JsonUtils;
+import com.esaulpaugh.headlong.util.Strings;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.joemelsha.crypto.hash.Keccak;
+import com.joemelsha.crypto.hash.Keccak256;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static com.esaulpaugh.headlong.abi.UnitType.UNIT_LENGTH_BYTES;
+
+/**
+ * EIP-712 hashing of typed structured data. Struct definitions are compiled once: each struct's {@code encodeType}
+ * string and {@code typeHash} are computed up front and member types are resolved to {@link ABIType}s or to other
+ * structs. Struct values are {@link Tuple}s whose elements are in declaration order; arrays of structs are
+ * {@code Tuple[]}. Nested structs, arrays, {@code bytes} and {@code string} are hashed incrementally with one reusable
+ * {@link Keccak} per nesting level per thread, so no intermediate encoding is materialized. Safe for use by multiple
+ * threads.
+ */
+public final class TypedData {
+
+    private static final String DOMAIN = "EIP712Domain";
+
+    private static final ThreadLocal<List<Level>> LEVELS = ThreadLocal.withInitial(ArrayList::new);
+
+    private final Map<String, Struct> structs;
+
+    private TypedData(Map<String, List<String[]>> definitions) {
+        this.structs = new LinkedHashMap<>();
+        for (String name : definitions.keySet()) {
+            structs.put(name, new Struct(name));
+        }
+        for (Map.Entry<String, List<String[]>> e : definitions.entrySet()) {
+            final List<String[]> members = e.getValue();
+            final Struct s = structs.get(e.getKey());
+            s.memberNames = new String[members.size()];
+            s.memberTypes = new MemberType[members.size()];
+            for (int i = 0; i < members.size(); i++) {
+                final String[] member = members.get(i);
+                s.memberTypes[i] = memberType(member[0]);
+                s.memberNames[i] = member[1];
+            }
+        }
+        for (Struct s : structs.values()) {
+            s.encodeType = encodeType(s);
+            s.typeHash = Keccak256.hash(Strings.decode(s.encodeType, Strings.UTF_8));
+        }
+    }
+
+    /**
+     * Parses struct definitions in the notation of {@code encodeType}, e.g.
+     * {@code "Mail(Person from,Person to,string contents)"}. Definitions may reference each other in any order.
+     *
+     * @param structDefinitions one definition per struct
+     * @return  the compiled definitions
+     */
+    public static TypedData parse(String... structDefinitions) {
+        final Map<String, List<String[]>> definitions = new LinkedHashMap<>();
+        for (String def : structDefinitions) {
+            final int open = def.indexOf('(');
+            if(open <= 0 || def.charAt(def.length() - 1) != ')') {
+                throw new IllegalArgumentException("illegal struct definition: " + def);
+            }
+            final List<String[]> members = new ArrayList<>();
+            final String list = def.substring(open + 1, def.length() - 1);
+            if(!list.isEmpty()) {
+                for (String member : list.split(",", -1)) {
+                    final int space = member.indexOf(' ');
+                    if(space <= 0 || space == member.length() - 1 || member.indexOf(' ', space + 1) >= 0) {
+                        throw new IllegalArgumentException("illegal member: \"" + member + "\" in " + def);
+                    }
+                    members.add(new String[] { member.substring(0, space), member.substring(space + 1) });
+                }
+            }
+            putDefinition(definitions, def.substring(0, open), members);
+        }
+        return new TypedData(definitions);
+    }
+
+    /**
+     * @param typesJson the {@code types} object of an {@code eth_signTypedData} request, e.g.
+     *                  <code>{"Person":[{"name":"name","type":"string"},{"name":"wallet","type":"address"}]}</code>
+     * @return  the compiled definitions
+     */
+    public static TypedData fromJson(String typesJson) {
+        final Map<String, List<String[]>> definitions = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonElement> e : JsonUtils.parseObject(typesJson).entrySet()) {
+            final List<String[]> members = new ArrayList<>();
+            for (JsonElement member : e.getValue().getAsJsonArray()) {
+                final JsonObject m = member.getAsJsonObject();
+                members.add(new String[] { JsonUtils.getString(m, "type"), JsonUtils.getString(m, "name") });
+            }
+            putDefinition(definitions, e.getKey(), members);
+        }
+        return new TypedData(definitions);
+    }
+
+    private static void putDefinition(Map<String, List<String[]>> definitions, String name, List<String[]> members) {
+        if(definitions.put(name, members) != null) {
+            throw new IllegalArgumentException("duplicate struct: " + name);
+        }
+    }
+
+    private MemberType memberType(String type) {
+        if(type.endsWith("]")) {
+            final int open = type.lastIndexOf('[');
+            if(open > 0) {
+                final MemberType element = memberType(type.substring(0, open));
+                final String len = type.substring(open + 1, type.length() - 1);
+                final int length;
+                try {
+                    length = len.isEmpty() ? ArrayType.DYNAMIC_LENGTH : Integer.parseInt(len);
+                } catch (NumberFormatException nfe) {
+                    throw new IllegalArgumentException("illegal array length: " + type);
+                }
+                if(element.struct != null) {
+                    return new MemberType(type, element.struct, null, element, length);
+                }
+                final ArrayType<?, ?> arrayType = (ArrayType<?, ?>) TypeFactory.create(type, null);
+                return new MemberType(type, null, arrayType, element, arrayType.getLength());
+            }
+        }
+        final Struct struct = structs.get(type);
+        if(struct != null) {
+            return new MemberType(type, struct, null, null, ArrayType.DYNAMIC_LENGTH);
+        }
+        final ABIType<?> abiType = TypeFactory.create(type, null);
+        if(abiType instanceof TupleType) {
+            throw new IllegalArgumentException("tuples are not allowed; define a struct instead: " + type);
+        }
+        return new MemberType(type, null, abiType, null, ArrayType.DYNAMIC_LENGTH);
+    }
+
+    private static String encodeType(Struct primary) {
+        final TreeSet<String> names = new TreeSet<>();
+        final Map<String, Struct> deps = new LinkedHashMap<>();
+        collectDependencies(primary, deps);
+        deps.remove(primary.name);
+        names.addAll(deps.keySet());
+        final StringBuilder sb = new StringBuilder();
+        appendDefinition(primary, sb);
+        for (String name : names) {
+            appendDefinition(deps.get(name), sb);
+        }
+        return sb.toString();
+    }
+
+    private static void collectDependencies(Struct s, Map<String, Struct> deps) {
+        if(deps.put(s.name, s) == null) {
+            for (MemberType t : s.memberTypes) {
+                if(t.struct != null) {
+                    collectDependencies(t.struct, deps);
+                }
+            }
+        }
+    }
+
+    private static void appendDefinition(Struct s, StringBuilder sb) {
+        sb.append(s.name).append('(');
+        for (int i = 0; i < s.memberTypes.length; i++) {
+            if(i > 0) {
+                sb.append(',');
+            }
+            sb.append(s.memberTypes[i].type).append(' ').append(s.memberNames[i]);
+        }
+        sb.append(')');
+    }
+
+    private Struct struct(String name) {
+        final Struct s = structs.get(name);
+        if(s != null) {
+            return s;
+        }
+        throw new IllegalArgumentException("unknown struct: " + name);
+    }
+
+    public String encodeType(String primaryType) {
+        return struct(primaryType).encodeType;
+    }
+
+    public byte[] typeHash(String primaryType) {
+        return struct(primaryType).typeHash.clone();
+    }
+
+    /**
+     * @param primaryType   the name of the struct
+     * @param value         the struct's members
+     * @return  {@code encodeData(value)}, 32 bytes per member
+     */
+    public byte[] encodeData(String primaryType, Tuple value) {
+        final Struct s = struct(primaryType);
+        checkMemberCount(s, value);
+        final ByteBuffer out = ByteBuffer.allocate(s.memberTypes.length * UNIT_LENGTH_BYTES);
+        encodeMembers(s, value, out, 0);
+        return out.array();
+    }
+
+    /**
+     * @param primaryType   the name of the struct
+     * @param value         the struct's members
+     * @return  {@code keccak256(typeHash ‖ encodeData(value))}
+     */
+    public byte[] hashStruct(String primaryType, Tuple value) {
+        final ByteBuffer out = ByteBuffer.allocate(UNIT_LENGTH_BYTES);
+        hashStruct(struct(primaryType), value, out, 0);
+        return out.array();
+    }
+
+    /**
+     * Computes the digest to be signed, {@code keccak256(0x19 ‖ 0x01 ‖ domainSeparator ‖ hashStruct(message))}.
+     *
+     * @param domainSeparator   the domain separator
+     * @param primaryType       the name of the message's struct
+     * @param message           the message
+     * @return  the digest
+     * @see #domainSeparator(String, String, BigInteger, BigInteger, byte[])
+     */
+    public byte[] hashTypedData(byte[] domainSeparator, String primaryType, Tuple message) {
+        if(domainSeparator.length != UNIT_LENGTH_BYTES) {
+            throw new IllegalArgumentException("domain separator length must be " + UNIT_LENGTH_BYTES + " but found " + domainSeparator.length);
+        }
+        final ByteBuffer preimage = ByteBuffer.allocate(2 + UNIT_LENGTH_BYTES + UNIT_LENGTH_BYTES);
+        preimage.put((byte) 0x19).put((byte) 0x01).put(domainSeparator);
+        hashStruct(struct(primaryType), message, preimage, 0);
+        return Keccak256.hash(preimage.array());
+    }
+
+    /**
+     * Computes {@code hashStruct} of an {@code EIP712Domain} with only the non-null fields, in the canonical order.
+     *
+     * @param name              the name of the signing domain or null
+     * @param version           the current major version of the signing domain or null
+     * @param chainId           the EIP-155 chain id or null
+     * @param verifyingContract the address of the verifying contract or null
+     * @param salt              the 32-byte disambiguating salt or null
+     * @return  the domain separator
+     */
+    public static byte[] domainSeparator(String name, String version, BigInteger chainId, BigInteger verifyingContract, byte[] salt) {
+        final Object[] values = { name, version, chainId, verifyingContract, salt };
+        int fields = 0;
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if(values[i] != null) {
+                fields |= 1 << i;
+                values[n++] = values[i];
+            }
+        }
+        return Domains.BY_FIELDS[fields].hashStruct(DOMAIN, new Tuple(Arrays.copyOf(values, n)));
+    }
+
+    /** Compiled {@code EIP712Domain} definitions, indexed by a bitmask of the {@link #FIELDS} present. */
+    private static final class Domains {
+
+        static final String[] FIELDS = { "string name", "string version", "uint256 chainId", "address verifyingContract", "bytes32 salt" };
+
+        static final TypedData[] BY_FIELDS = new TypedData[1 << FIELDS.length];
+
+        static {
+            for (int fields = 0; fields < BY_FIELDS.length; fields++) {
+                final StringBuilder def = new StringBuilder(DOMAIN).append('(');
+                for (int i = 0; i < FIELDS.length; i++) {
+                    if((fields & (1 << i)) != 0) {
+                        def.append(FIELDS[i]).append(',');
+                    }
+                }
+                if(fields == 0) {
+                    def.append(')');
+                } else {
+                    def.setCharAt(def.length() - 1, ')');
+                }
+                BY_FIELDS[fields] = parse(def.toString());
+            }
+        }
+    }
+
+    private static void checkMemberCount(Struct s, Tuple value) {
+        if(value.elements.length != s.memberTypes.length) {
+            throw new IllegalArgumentException(s.name + ": member count mismatch: actual != expected: " + value.elements.length + " != " + s.memberTypes.length);
+        }
+    }
+
+    private static void hashStruct(Struct s, Tuple value, ByteBuffer out, int depth) {
+        checkMemberCount(s, value);
+        final Level level = level(depth);
+        final ByteSink sink = level.open();
+        sink.reserve(UNIT_LENGTH_BYTES).put(s.typeHash);
+        for (int i = 0; i < s.memberTypes.length; i++) {
+            encodeMember(s, i, value.elements[i], sink.reserve(UNIT_LENGTH_BYTES), depth + 1);
+        }
+        level.close(sink, out);
+    }
+
+    private static void encodeMembers(Struct s, Tuple value, ByteBuffer out, int depth) {
+        for (int i = 0; i < s.memberTypes.length; i++) {
+            encodeMember(s, i, value.elements[i], out, depth);
+        }
+    }
+
+    private static void encodeMember(Struct s, int i, Object value, ByteBuffer out, int depth) {
+        try {
+            encodeValue(s.memberTypes[i], value, out, depth);
+        } catch (NullPointerException | IllegalArgumentException | ClassCastException e) {
+            throw new IllegalArgumentException(s.name + "." + s.memberNames[i] + ": " + e.getMessage());
+        }
+    }
+
+    /* writes exactly 32 bytes to out */
+    private static void encodeValue(MemberType t, Object value, ByteBuffer out, int depth) {
+        if(t.element != null) {
+            final Level level = level(depth);
+            final ByteSink sink = level.open();
+            if(t.abiType != null && t.element.abiType != null && !t.element.abiType.dynamic && t.element.element == null) {
+                final ArrayType<?, ?> arrayType = (ArrayType<?, ?>) t.abiType;
+                arrayType.validate(value);
+                arrayType.encodeElements(arrayType.decodeIfString(value), sink, null);
+            } else {
+                final Object[] elements = (Object[]) value;
+                if(t.length != ArrayType.DYNAMIC_LENGTH && elements.length != t.length) {
+                    throw new IllegalArgumentException("array length mismatch: actual != expected: " + elements.length + " != " + t.length);
+                }
+                for (Object e : elements) {
+                    encodeValue(t.element, e, sink.reserve(UNIT_LENGTH_BYTES), depth + 1);
+                }
+            }
+            level.close(sink, out);
+        } else if(t.struct != null) {
+            hashStruct(t.struct, (Tuple) value, out, depth);
+        } else {
+            final ABIType<?> type = t.abiType;
+            type.validate(value);
+            if(type.dynamic) {
+                final byte[] bytes = (byte[]) ((ArrayType<?, ?>) type).decodeIfString(value);
+                final int pos = out.position();
+                Keccak256.hash(bytes, 0, bytes.length, out.array(), out.arrayOffset() + pos);
+                out.position(pos + UNIT_LENGTH_BYTES);
+            } else {
+                type.encodeHead(value, out, 0);
+            }
+        }
+    }
+
+    private static Level level(int depth) {
+        final List<Level> levels = LEVELS.get();
+        while(levels.size() <= depth) {
+            levels.add(new Level());
+        }
+        return levels.get(depth);
+    }
+
+    private static final class Level {
+
+        final Keccak keccak = new Keccak(256);
+        final ByteBuffer scratch = ByteBuffer.allocate(ByteSink.CAPACITY);
+
+        ByteSink open() {
+            keccak.reset();
+            return new ByteSink(keccak, scratch);
+        }
+
+        void close(ByteSink sink, ByteBuffer out) {
+            sink.flush();
+            keccak.digest(out, UNIT_LENGTH_BYTES);
+        }
+    }
+
+    private static final class Struct {
+
+        final String name;
+        String[] memberNames;
+        MemberType[] memberTypes;
+        String encodeType;
+        byte[] typeHash;
+
+        Struct(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class MemberType {
+
+        final String type;
+        final Struct struct;
+        final ABIType<?> abiType;
+        final MemberType element;
+        final int length;
+
+        MemberType(String type, Struct struct, ABIType<?> abiType, MemberType element, int length) {
+            this.type = type;
+            this.struct = struct;
+            this.abiType = abiType;
+            this.element = element;
+            this.length = length;
+        }
+    }
+}
@@ -20,6 +20,7 @@ import com.esaulpaugh.headlong.util.Integers;
 
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /** Superclass for any 256-bit ("unit") Contract ABI type. Usually numbers or boolean. Not for arrays. */
 public abstract class UnitType<V> extends ABIType<V> { // V generally extends Number or is Boolean
@@ -73,6 +74,35 @@ public abstract class UnitType<V> extends ABIType<V> { // V generally extends Nu
         }
     }
 
+    /**
+     * Decodes a unit whose value is expected to fit in a long without allocating a {@link BigInteger}. The sign
+     * extension of the high-order words and the bit length are checked directly on the data, with the same semantics as
+     * {@link #validateBigInt(BigInteger)}.
+     *
+     * @param bb    the buffer containing the encoded unit
+     * @return  the low-order 64 bits of the validated value
+     */
+    final long decodePrimitive(ByteBuffer bb) {
+        long a = bb.getLong(), b = bb.getLong(), c = bb.getLong(), d = bb.getLong();
+        if(bb.order() != ByteOrder.BIG_ENDIAN) {
+            a = Long.reverseBytes(a);
+            b = Long.reverseBytes(b);
+            c = Long.reverseBytes(c);
+            d = Long.reverseBytes(d);
+        }
+        final long signBits = a >> (Long.SIZE - 1); // all ones if negative, else zero
+        checkBitLen(
+                a != signBits ? 3 * Long.SIZE + Integers.bitLen(a ^ signBits)
+                        : b != signBits ? 2 * Long.SIZE + Integers.bitLen(b ^ signBits)
+                        : c != signBits ? Long.SIZE + Integers.bitLen(c ^ signBits)
+                        : Integers.bitLen(d ^ signBits)
+        );
+        if (unsigned && signBits != 0) {
+            throw new IllegalArgumentException("signed value given for unsigned type");
+        }
+        return d;
+    }
+
     final void validateBigInt(BigInteger bigIntVal) {
         checkBitLen(bigIntVal.bitLength());
         if (unsigned && bigIntVal.signum() < 0) {
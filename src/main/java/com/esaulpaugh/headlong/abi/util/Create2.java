@@ -0,0 +1,298 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.abi.util;
+
+import com.joemelsha.crypto.hash.Keccak256;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Computes CREATE2 addresses, {@code keccak256(0xff ++ deployer ++ salt ++ keccak256(initCode))[12:]}, and searches
+ * salt space in parallel for an address satisfying a predicate, e.g. a vanity prefix. Each worker hashes candidates in
+ * batches into preallocated buffers, so no allocation is done per candidate.
+ */
+public final class Create2 {
+
+    public static final int ADDRESS_LEN = 20;
+    public static final int SALT_LEN = 32;
+
+    private static final int HASH_LEN = Keccak256.DIGEST_LEN;
+    private static final int ADDRESS_OFFSET = HASH_LEN - ADDRESS_LEN;
+
+    private static final int PREIMAGE_LEN = 1 + ADDRESS_LEN + SALT_LEN + HASH_LEN;
+    private static final int SALT_OFFSET = 1 + ADDRESS_LEN;
+    private static final int COUNTER_OFFSET = SALT_OFFSET + SALT_LEN - Long.BYTES;
+
+    private static final int BATCH_SIZE = 8;
+    private static final long LEAF_SIZE = 1L << 14;
+
+    private Create2() {}
+
+    /**
+     * Tests a candidate address without copying it out of the hash.
+     */
+    @FunctionalInterface
+    public interface AddressPredicate {
+        /**
+         * Must be safe to call from multiple threads at once.
+         *
+         * @param buffer    the buffer containing the address
+         * @param offset    the offset of the address's twenty bytes
+         * @return  true if the address is acceptable
+         */
+        boolean test(byte[] buffer, int offset);
+    }
+
+    public static byte[] address(byte[] deployer, byte[] salt, byte[] initCodeHash) {
+        checkLength("deployer", ADDRESS_LEN, deployer);
+        checkLength("salt", SALT_LEN, salt);
+        checkLength("initCodeHash", HASH_LEN, initCodeHash);
+        final byte[] preimage = preimage(deployer, salt, initCodeHash);
+        final byte[] hash = new byte[HASH_LEN];
+        Keccak256.hash(preimage, 0, PREIMAGE_LEN, hash, 0);
+        return Arrays.copyOfRange(hash, ADDRESS_OFFSET, HASH_LEN);
+    }
+
+    /**
+     * @param prefix    the leading bytes
+     * @return  a predicate matching addresses which begin with the given bytes
+     */
+    public static AddressPredicate prefix(byte[] prefix) {
+        if (prefix.length > ADDRESS_LEN) {
+            throw new IllegalArgumentException("prefix too long: " + prefix.length + " > " + ADDRESS_LEN);
+        }
+        final byte[] p = prefix.clone();
+        return (buffer, offset) -> {
+            for (int i = 0; i < p.length; i++) {
+                if (buffer[offset + i] != p[i]) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    /**
+     * @param hexPrefix the leading hex digits, case-insensitive, possibly of odd length
+     * @return  a predicate matching addresses whose hex representation begins with the given digits
+     */
+    public static AddressPredicate hexPrefix(String hexPrefix) {
+        final int len = hexPrefix.length();
+        if (len > ADDRESS_LEN * 2) {
+            throw new IllegalArgumentException("prefix too long: " + len + " > " + ADDRESS_LEN * 2);
+        }
+        final byte[] nibbles = new byte[len];
+        for (int i = 0; i < len; i++) {
+            final int d = Character.digit(hexPrefix.charAt(i), 16);
+            if (d < 0) {
+                throw new IllegalArgumentException("illegal hex val @ " + i);
+            }
+            nibbles[i] = (byte) d;
+        }
+        return (buffer, offset) -> {
+            for (int i = 0; i < nibbles.length; i++) {
+                final int b = buffer[offset + (i >>> 1)];
+                if (((i & 1) == 0 ? (b >>> 4) & 0xF : b & 0xF) != nibbles[i]) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    public static Result search(byte[] deployer, byte[] initCodeHash, byte[] baseSalt, long count, AddressPredicate predicate) {
+        return search(deployer, initCodeHash, baseSalt, count, predicate, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Searches the salts formed by replacing the last eight bytes of {@code baseSalt} with each big-endian counter value
+     * in {@code [0, count)} and stops as soon as any one of them yields an address matching the predicate. Which
+     * matching salt is found is nondeterministic when there is more than one.
+     *
+     * @param deployer      the address of the deploying contract
+     * @param initCodeHash  the Keccak-256 hash of the init code
+     * @param baseSalt      the salt whose first twenty-four bytes are fixed
+     * @param count         the number of salts to try
+     * @param predicate     the condition on the address
+     * @param pool          the pool in which to run the search
+     * @return  the outcome of the search
+     */
+    public static Result search(byte[] deployer, byte[] initCodeHash, byte[] baseSalt, long count, AddressPredicate predicate, ForkJoinPool pool) {
+        checkLength("deployer", ADDRESS_LEN, deployer);
+        checkLength("initCodeHash", HASH_LEN, initCodeHash);
+        checkLength("baseSalt", SALT_LEN, baseSalt);
+        if (count < 0) {
+            throw new IllegalArgumentException("count is negative: " + count);
+        }
+        final Search search = new Search(preimage(deployer, baseSalt, initCodeHash), predicate);
+        final long start = System.nanoTime();
+        pool.invoke(search.new Range(0L, count));
+        final long elapsed = System.nanoTime() - start;
+        final byte[] salt = search.found.get();
+        return new Result(
+                salt,
+                salt != null ? address(deployer, salt, initCodeHash) : null,
+                search.candidates.sum(),
+                elapsed
+        );
+    }
+
+    private static byte[] preimage(byte[] deployer, byte[] salt, byte[] initCodeHash) {
+        final byte[] preimage = new byte[PREIMAGE_LEN];
+        preimage[0] = (byte) 0xff;
+        System.arraycopy(deployer, 0, preimage, 1, ADDRESS_LEN);
+        System.arraycopy(salt, 0, preimage, SALT_OFFSET, SALT_LEN);
+        System.arraycopy(initCodeHash, 0, preimage, SALT_OFFSET + SALT_LEN, HASH_LEN);
+        return preimage;
+    }
+
+    private static void checkLength(String name, int expected, byte[] bytes) {
+        if (bytes.length != expected) {
+            throw new IllegalArgumentException(name + " length must be " + expected + " but found " + bytes.length);
+        }
+    }
+
+    private static void putLongBigEndian(long val, byte[] dest, int off) {
+        for (int i = off + Long.BYTES - 1; i >= off; i--) {
+            dest[i] = (byte) val;
+            val >>>= 8;
+        }
+    }
+
+    private static final class Search {
+
+        final byte[] preimage;
+        final AddressPredicate predicate;
+        final AtomicReference<byte[]> found = new AtomicReference<>();
+        final LongAdder candidates = new LongAdder();
+
+        Search(byte[] preimage, AddressPredicate predicate) {
+            this.preimage = preimage;
+            this.predicate = predicate;
+        }
+
+        void scan(long from, long to) {
+            final byte[] preimages = new byte[BATCH_SIZE * PREIMAGE_LEN];
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                System.arraycopy(preimage, 0, preimages, i * PREIMAGE_LEN, PREIMAGE_LEN);
+            }
+            final byte[] hashes = new byte[BATCH_SIZE * HASH_LEN];
+            long n = from;
+            while (n < to && found.get() == null) {
+                final int batch = (int) Math.min(BATCH_SIZE, to - n);
+                for (int i = 0; i < batch; i++) {
+                    putLongBigEndian(n + i, preimages, i * PREIMAGE_LEN + COUNTER_OFFSET);
+                }
+                Keccak256.hashAll(preimages, 0, PREIMAGE_LEN, batch, hashes, 0);
+                for (int i = 0; i < batch; i++) {
+                    if (predicate.test(hashes, i * HASH_LEN + ADDRESS_OFFSET)) {
+                        found.compareAndSet(null, Arrays.copyOfRange(preimages, i * PREIMAGE_LEN + SALT_OFFSET, i * PREIMAGE_LEN + SALT_OFFSET + SALT_LEN));
+                        candidates.add(n + i + 1 - from);
+                        return;
+                    }
+                }
+                n += batch;
+            }
+            candidates.add(n - from);
+        }
+
+        final class Range extends RecursiveAction {
+
+            private static final long serialVersionUID = 7041283618523491870L;
+
+            private final long from, to;
+
+            Range(long from, long to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (found.get() != null) {
+                    return;
+                }
+                if (to - from <= LEAF_SIZE) {
+                    scan(from, to);
+                    return;
+                }
+                final long mid = from + ((to - from) >>> 1);
+                invokeAll(new Range(from, mid), new Range(mid, to));
+            }
+        }
+    }
+
+    /**
+     * The outcome of a search, with its throughput.
+     */
+    public static final class Result {
+
+        private final byte[] salt;
+        private final byte[] address;
+        private final long candidates;
+        private final long elapsedNanos;
+
+        Result(byte[] salt, byte[] address, long candidates, long elapsedNanos) {
+            this.salt = salt;
+            this.address = address;
+            this.candidates = candidates;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public boolean isFound() {
+            return salt != null;
+        }
+
+        /**
+         * @return  the matching salt or null if none was found
+         */
+        public byte[] getSalt() {
+            return salt != null ? salt.clone() : null;
+        }
+
+        /**
+         * @return  the matching address or null if none was found
+         */
+        public byte[] getAddress() {
+            return address != null ? address.clone() : null;
+        }
+
+        /**
+         * @return  the number of salts hashed across all threads
+         */
+        public long getCandidates() {
+            return candidates;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getCandidatesPerSecond() {
+            return elapsedNanos == 0L ? 0.0 : candidates * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return (isFound() ? "found after " : "not found after ") + candidates + " candidates in "
+                    + elapsedNanos / 1_000_000 + " ms (" + (long) getCandidatesPerSecond() + "/s)";
+        }
+    }
+}
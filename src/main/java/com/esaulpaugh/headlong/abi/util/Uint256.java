@@ -0,0 +1,339 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.abi.util;
+
+import com.esaulpaugh.headlong.util.Integers;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * An immutable unsigned 256-bit integer backed by four longs. An allocation-light alternative to {@link BigInteger} for
+ * values of types such as uint256 and address. Arithmetic wraps modulo 2<sup>256</sup>, as in the EVM.
+ */
+public final class Uint256 extends Number implements Comparable<Uint256> {
+
+    private static final long serialVersionUID = -2547417416733421538L;
+
+    public static final int BIT_LENGTH = 256;
+    public static final int BYTES = BIT_LENGTH / Byte.SIZE;
+
+    private static final Uint UINT_256 = new Uint(BIT_LENGTH);
+
+    public static final Uint256 ZERO = new Uint256(0L, 0L, 0L, 0L);
+    public static final Uint256 ONE = new Uint256(0L, 0L, 0L, 1L);
+    public static final Uint256 MAX_VALUE = new Uint256(-1L, -1L, -1L, -1L);
+
+    private static final long INT_MASK = 0xFFFFFFFFL;
+
+    /* big-endian word order: w0 is the most significant */
+    private final long w0;
+    private final long w1;
+    private final long w2;
+    private final long w3;
+
+    private Uint256(long w0, long w1, long w2, long w3) {
+        this.w0 = w0;
+        this.w1 = w1;
+        this.w2 = w2;
+        this.w3 = w3;
+    }
+
+    public static Uint256 valueOf(long val) {
+        if(val >= 0) {
+            return val == 0L ? ZERO : new Uint256(0L, 0L, 0L, val);
+        }
+        throw new IllegalArgumentException("unsigned value is negative: " + val);
+    }
+
+    public static Uint256 valueOf(BigInteger val) {
+        if(val.signum() < 0) {
+            throw new IllegalArgumentException("unsigned value is negative: " + val);
+        }
+        final int bitLen = val.bitLength();
+        if(bitLen > BIT_LENGTH) {
+            throw new IllegalArgumentException("unsigned has too many bits: " + bitLen + " > " + BIT_LENGTH);
+        }
+        return new Uint256(
+                val.shiftRight(3 * Long.SIZE).longValue(),
+                val.shiftRight(2 * Long.SIZE).longValue(),
+                val.shiftRight(Long.SIZE).longValue(),
+                val.longValue()
+        );
+    }
+
+    /**
+     * Returns the 256-bit two's complement representation of a signed value.
+     *
+     * @param signed    a value in the range [-2<sup>255</sup>, 2<sup>255</sup>)
+     * @return  the unsigned equivalent
+     */
+    public static Uint256 fromSigned(BigInteger signed) {
+        return valueOf(UINT_256.toUnsigned(signed));
+    }
+
+    /**
+     * Reads a big-endian unsigned 256-bit integer at the buffer's current position, regardless of the buffer's
+     * {@link ByteOrder}.
+     *
+     * @param bb    the buffer
+     * @return  the value
+     */
+    public static Uint256 get(ByteBuffer bb) {
+        long a = bb.getLong(), b = bb.getLong(), c = bb.getLong(), d = bb.getLong();
+        if(bb.order() != ByteOrder.BIG_ENDIAN) {
+            a = Long.reverseBytes(a);
+            b = Long.reverseBytes(b);
+            c = Long.reverseBytes(c);
+            d = Long.reverseBytes(d);
+        }
+        return new Uint256(a, b, c, d);
+    }
+
+    /**
+     * Puts the 32-byte big-endian representation of this value into the buffer at its current position.
+     *
+     * @param dest  the destination buffer
+     */
+    public void put(ByteBuffer dest) {
+        put(dest, BYTES);
+    }
+
+    /**
+     * Puts the {@code len} low-order bytes of the big-endian representation of this value into the buffer.
+     *
+     * @param dest  the destination buffer
+     * @param len   the number of bytes, from 0 to 32 inclusive
+     */
+    public void put(ByteBuffer dest, int len) {
+        if(len < 0 || len > BYTES) {
+            throw new IllegalArgumentException("len out of range: " + len);
+        }
+        if(len == BYTES) {
+            dest.putLong(w0).putLong(w1).putLong(w2).putLong(w3);
+            return;
+        }
+        final int fullWords = len >>> 3;
+        final int rem = len & 0x7;
+        if(rem != 0) { // leading partial word
+            final long w = word(fullWords);
+            for (int shift = (rem - 1) << 3; shift >= 0; shift -= Byte.SIZE) {
+                dest.put((byte) (w >>> shift));
+            }
+        }
+        for (int i = fullWords - 1; i >= 0; i--) {
+            dest.putLong(word(i));
+        }
+    }
+
+    /* index 0 is the least significant word */
+    private long word(int index) {
+        switch (index) {
+        case 0: return w3;
+        case 1: return w2;
+        case 2: return w1;
+        case 3: return w0;
+        default: throw new IndexOutOfBoundsException();
+        }
+    }
+
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[BYTES];
+        put(ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    public BigInteger toBigInteger() {
+        return new BigInteger(1, toByteArray());
+    }
+
+    /**
+     * Interprets this value as a 256-bit two's complement integer.
+     *
+     * @return  the signed equivalent
+     */
+    public BigInteger toSigned() {
+        return UINT_256.toSigned(toBigInteger());
+    }
+
+    public int bitLength() {
+        return w0 != 0L ? 3 * Long.SIZE + Integers.bitLen(w0)
+                : w1 != 0L ? 2 * Long.SIZE + Integers.bitLen(w1)
+                : w2 != 0L ? Long.SIZE + Integers.bitLen(w2)
+                : Integers.bitLen(w3);
+    }
+
+    public int signum() {
+        return (w0 | w1 | w2 | w3) != 0L ? 1 : 0;
+    }
+
+    public Uint256 add(Uint256 other) {
+        long r3 = w3 + other.w3;
+        long carry = carry(w3, other.w3, r3);
+        long r2 = w2 + other.w2 + carry;
+        carry = carry(w2, other.w2, r2);
+        long r1 = w1 + other.w1 + carry;
+        carry = carry(w1, other.w1, r1);
+        return new Uint256(w0 + other.w0 + carry, r1, r2, r3);
+    }
+
+    public Uint256 subtract(Uint256 other) {
+        long r3 = w3 - other.w3;
+        long borrow = borrow(w3, other.w3, r3);
+        long r2 = w2 - other.w2 - borrow;
+        borrow = borrow(w2, other.w2, r2);
+        long r1 = w1 - other.w1 - borrow;
+        borrow = borrow(w1, other.w1, r1);
+        return new Uint256(w0 - other.w0 - borrow, r1, r2, r3);
+    }
+
+    private static long carry(long a, long b, long sum) {
+        return ((a & b) | ((a | b) & ~sum)) >>> (Long.SIZE - 1);
+    }
+
+    private static long borrow(long a, long b, long diff) {
+        return ((~a & b) | (~(a ^ b) & diff)) >>> (Long.SIZE - 1);
+    }
+
+    public Uint256 multiply(Uint256 other) {
+        final long[] x = toIntLimbs(), y = other.toIntLimbs();
+        final long[] r = new long[8];
+        for (int i = 0; i < 8; i++) {
+            final long xi = x[i];
+            if(xi == 0L) {
+                continue;
+            }
+            long carry = 0L;
+            for (int j = 0; i + j < 8; j++) {
+                long t = xi * y[j] + r[i + j] + carry; // cannot exceed 2^64 - 1 unsigned
+                r[i + j] = t & INT_MASK;
+                carry = t >>> Integer.SIZE;
+            }
+        }
+        return new Uint256(r[7] << Integer.SIZE | r[6], r[5] << Integer.SIZE | r[4], r[3] << Integer.SIZE | r[2], r[1] << Integer.SIZE | r[0]);
+    }
+
+    /* little-endian 32-bit limbs */
+    private long[] toIntLimbs() {
+        return new long[] {
+                w3 & INT_MASK, w3 >>> Integer.SIZE,
+                w2 & INT_MASK, w2 >>> Integer.SIZE,
+                w1 & INT_MASK, w1 >>> Integer.SIZE,
+                w0 & INT_MASK, w0 >>> Integer.SIZE
+        };
+    }
+
+    public Uint256 shiftLeft(int n) {
+        if(n >= BIT_LENGTH || n <= -BIT_LENGTH) { // also keeps Integer.MIN_VALUE from being negated
+            return ZERO;
+        }
+        if(n < 0) {
+            return shiftRight(-n);
+        }
+        final int wordShift = n >>> 6, bitShift = n & 0x3f;
+        final long[] r = new long[4];
+        for (int i = 3; i >= wordShift; i--) { // r[i] is the i-th least significant word
+            long w = word(i - wordShift) << bitShift;
+            if(bitShift != 0 && i - wordShift - 1 >= 0) {
+                w |= word(i - wordShift - 1) >>> (Long.SIZE - bitShift);
+            }
+            r[i] = w;
+        }
+        return new Uint256(r[3], r[2], r[1], r[0]);
+    }
+
+    public Uint256 shiftRight(int n) {
+        if(n >= BIT_LENGTH || n <= -BIT_LENGTH) { // also keeps Integer.MIN_VALUE from being negated
+            return ZERO;
+        }
+        if(n < 0) {
+            return shiftLeft(-n);
+        }
+        final int wordShift = n >>> 6, bitShift = n & 0x3f;
+        final long[] r = new long[4];
+        for (int i = 0; i + wordShift < 4; i++) {
+            long w = word(i + wordShift) >>> bitShift;
+            if(bitShift != 0 && i + wordShift + 1 < 4) {
+                w |= word(i + wordShift + 1) << (Long.SIZE - bitShift);
+            }
+            r[i] = w;
+        }
+        return new Uint256(r[3], r[2], r[1], r[0]);
+    }
+
+    @Override
+    public int compareTo(Uint256 other) {
+        int c;
+        return (c = Long.compareUnsigned(w0, other.w0)) != 0 ? c
+                : (c = Long.compareUnsigned(w1, other.w1)) != 0 ? c
+                : (c = Long.compareUnsigned(w2, other.w2)) != 0 ? c
+                : Long.compareUnsigned(w3, other.w3);
+    }
+
+    /** @return the low-order 32 bits */
+    @Override
+    public int intValue() {
+        return (int) w3;
+    }
+
+    /** @return the low-order 64 bits */
+    @Override
+    public long longValue() {
+        return w3;
+    }
+
+    public long longValueExact() {
+        if((w0 | w1 | w2) == 0L && w3 >= 0L) {
+            return w3;
+        }
+        throw new ArithmeticException("Uint256 out of long range");
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return toBigInteger().doubleValue();
+    }
+
+    @Override
+    public int hashCode() {
+        long h = w0;
+        h = 31 * h + w1;
+        h = 31 * h + w2;
+        h = 31 * h + w3;
+        return (int) (h ^ (h >>> Integer.SIZE));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Uint256 other = (Uint256) o;
+        return w0 == other.w0 && w1 == other.w1 && w2 == other.w2 && w3 == other.w3;
+    }
+
+    @Override
+    public String toString() {
+        return (w0 | w1 | w2) == 0L && w3 >= 0L
+                ? Long.toString(w3)
+                : toBigInteger().toString();
+    }
+}
@@ -37,8 +37,6 @@ public final class Keccak extends MessageDigest {
     private final long[] state = new long[MAX_STATE_SIZE_WORDS];
     private int rateBits; // = 0
 
-    private transient ByteBuffer out;
-
     public Keccak(int digestSizeBits) {
         this("Keccak-", digestSizeBits);
     }
@@ -75,7 +73,47 @@ public final class Keccak extends MessageDigest {
             state[i] = 0L;
         }
         rateBits = 0;
-        out = null; // very important to avoid leaking memory
+    }
+
+    /**
+     * Captures the absorbed state so that input common to many messages need only be absorbed once.
+     *
+     * @return  an immutable copy of this digest's state
+     * @see #restore(Snapshot)
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(state.clone(), rateBits, rateSizeBits);
+    }
+
+    /**
+     * Replaces this digest's state with a previously captured one, discarding any input absorbed since. Does not
+     * allocate. The snapshot is unaffected and may be restored any number of times, by any digest of the same variant.
+     *
+     * @param snapshot  a snapshot from a digest of the same variant
+     * @throws IllegalArgumentException if the snapshot was taken from a digest of a different variant
+     */
+    public void restore(Snapshot snapshot) {
+        if (snapshot.rateSizeBits != rateSizeBits) {
+            throw new IllegalArgumentException("snapshot rate mismatch: " + snapshot.rateSizeBits + " != " + rateSizeBits);
+        }
+        System.arraycopy(snapshot.state, 0, state, 0, MAX_STATE_SIZE_WORDS);
+        rateBits = snapshot.rateBits;
+    }
+
+    /**
+     * The absorbed state of a {@link Keccak} at a point in time.
+     */
+    public static final class Snapshot {
+
+        private final long[] state;
+        private final int rateBits;
+        private final int rateSizeBits;
+
+        private Snapshot(long[] state, int rateBits, int rateSizeBits) {
+            this.state = state;
+            this.rateBits = rateBits;
+            this.rateSizeBits = rateSizeBits;
+        }
     }
 
     @Override
@@ -90,7 +128,57 @@ public final class Keccak extends MessageDigest {
 
     @Override
     protected void engineUpdate(byte[] input, int offset, int len) {
-        engineUpdate(ByteBuffer.wrap(input, offset, len));
+        if (len <= 0) {
+            return;
+        }
+
+        int rateBits = this.rateBits;
+        if ((rateBits & 0b111) != 0) {
+            throw new IllegalStateException("Cannot update while in bit mode");
+        }
+
+        final long[] state = this.state;
+        final int rateSizeBytes = rateSizeWords << 3;
+        final int end = offset + len;
+        int rateBytes = rateBits >>> 3;
+
+        while ((rateBytes & 0b111) != 0 && offset < end) { // until word-aligned
+            state[rateBytes >>> 3] ^= (input[offset++] & 0xFFL) << ((rateBytes & 0b111) << 3);
+            rateBytes++;
+        }
+        while (end - offset >= Long.BYTES) {
+            if (rateBytes >= rateSizeBytes) {
+                keccak(state);
+                rateBytes = 0;
+            }
+            state[rateBytes >>> 3] ^= getLongLittleEndian(input, offset);
+            offset += Long.BYTES;
+            rateBytes += Long.BYTES;
+        }
+        while (offset < end) {
+            if (rateBytes >= rateSizeBytes) {
+                keccak(state);
+                rateBytes = 0;
+            }
+            state[rateBytes >>> 3] ^= (input[offset++] & 0xFFL) << ((rateBytes & 0b111) << 3);
+            rateBytes++;
+        }
+        if (rateBytes >= rateSizeBytes) {
+            keccak(state);
+            rateBytes = 0;
+        }
+        this.rateBits = rateBytes << 3;
+    }
+
+    static long getLongLittleEndian(byte[] b, int i) {
+        return (b[i] & 0xFFL)
+                | (b[i + 1] & 0xFFL) << 8
+                | (b[i + 2] & 0xFFL) << 16
+                | (b[i + 3] & 0xFFL) << 24
+                | (b[i + 4] & 0xFFL) << 32
+                | (b[i + 5] & 0xFFL) << 40
+                | (b[i + 6] & 0xFFL) << 48
+                | (long) b[i + 7] << 56;
     }
 
     @Override
@@ -101,6 +189,13 @@ public final class Keccak extends MessageDigest {
             return;
         }
 
+        if (in.hasArray()) {
+            final int pos = in.position();
+            engineUpdate(in.array(), in.arrayOffset() + pos, remaining);
+            in.position(pos + remaining);
+            return;
+        }
+
         int rateBits = this.rateBits;
         if ((rateBits & 0b111) != 0) {
             throw new IllegalStateException("Cannot update while in bit mode");
@@ -192,77 +287,52 @@ public final class Keccak extends MessageDigest {
         out.limit(prevLim);
     }
 
+    /**
+     * Completes the hash computation, filling the buffer's remaining bytes with output, and resets the state.
+     *
+     * @param out   the destination buffer
+     */
     public void digest(ByteBuffer out) {
-        this.out = out;
-        engineDigest();
+        final int len = out.remaining();
+        if (out.hasArray()) {
+            final int pos = out.position();
+            engineDigest(out.array(), out.arrayOffset() + pos, len);
+            out.position(pos + len);
+            return;
+        }
+        pad();
+        final int rateSizeBytes = rateSizeWords << 3;
+        for (int i = 0, r = 0; i < len; i++, r++) {
+            if (r >= rateSizeBytes) {
+                keccak(state); // squeeze
+                r = 0;
+            }
+            out.put((byte) (state[r >>> 3] >>> ((r & 0b111) << 3)));
+        }
+        engineReset();
     }
 
     @Override
     protected int engineDigest(byte[] buf, int offset, int len) {
-        out = ByteBuffer.wrap(buf, offset, len);
-        engineDigest();
-        return len;
-    }
-
-    @Override
-    protected byte[] engineDigest() {
-
         pad();
-
-        int remaining;
-        if(out != null) {
-            remaining = out.remaining();
-        } else {
-            out = ByteBuffer.allocate(digestSizeBytes);
-            remaining = digestSizeBytes;
-        }
-
-        int rateWords = 0;
-        int outWords = remaining >>> 3;
-        if (outWords > 0) {
-            out.order(ByteOrder.LITTLE_ENDIAN);
-            do {
-                if (rateWords >= rateSizeWords) {
-                    keccak(state); // squeeze
-                    rateWords = 0;
-                }
-                int c = rateSizeWords - rateWords;
-                if (c > outWords)
-                    c = outWords;
-                outWords -= c;
-                c += rateWords;
-                do {
-                    out.putLong(state[rateWords]);
-                    rateWords++;
-                } while (rateWords < c);
-            } while (outWords > 0);
-            remaining &= 0b111;
-        }
-
-        if (remaining > 0) {
-            if (rateWords >= rateSizeWords) {
+        final long[] state = this.state;
+        final int rateSizeBytes = rateSizeWords << 3;
+        for (int i = 0, r = 0; i < len; i++, r++) {
+            if (r >= rateSizeBytes) {
                 keccak(state); // squeeze
-                rateWords = 0;
-            }
-            long w = state[rateWords];
-
-            int shiftAmount = 0;
-            switch (remaining) {
-            case 7: out.put((byte) w); shiftAmount = Byte.SIZE;
-            case 6: out.put((byte) (w >>> shiftAmount)); shiftAmount += Byte.SIZE;
-            case 5: out.put((byte) (w >>> shiftAmount)); shiftAmount += Byte.SIZE;
-            case 4: out.put((byte) (w >>> shiftAmount)); shiftAmount += Byte.SIZE;
-            case 3: out.put((byte) (w >>> shiftAmount)); shiftAmount += Byte.SIZE;
-            case 2: out.put((byte) (w >>> shiftAmount)); shiftAmount += Byte.SIZE;
-            case 1: out.put((byte) (w >>> shiftAmount));
+                r = 0;
             }
+            buf[offset + i] = (byte) (state[r >>> 3] >>> ((r & 0b111) << 3));
         }
+        engineReset();
+        return len;
+    }
 
-        try {
-            return out.array();
-        } finally {
-            engineReset();
-        }
+    @Override
+    protected byte[] engineDigest() {
+        byte[] out = new byte[digestSizeBytes];
+        engineDigest(out, 0, digestSizeBytes);
+        return out;
     }
 
     protected void pad() {
@@ -386,6 +456,88 @@ public final class Keccak extends MessageDigest {
         } while (i < 24);
     }
 
+    /**
+     * Applies the permutation to each of {@code lanes} independent states stored consecutively in {@code a}, i.e. state
+     * {@code n} occupies {@code a[25n]} through {@code a[25n + 24]}. The rounds are interleaved across states so that
+     * the processor can overlap their independent dependency chains.
+     */
+    static void keccak(long[] a, int lanes) {
+        final long[] rc = RC;
+        final int end = lanes * 25;
+        for (int i = 0; i < 24; i++) {
+            final long rci = rc[i];
+            for (int o = 0; o < end; o += 25) {
+                round(a, o, rci);
+            }
+        }
+    }
+
+    private static void round(long[] a, int o, long rc) {
+        long x, a_10_;
+        long x0, x1, x2, x3, x4;
+        long t0, t1, t2, t3, t4;
+        long c0, c1, c2, c3, c4;
+
+        //theta (precalculation part)
+        c0 = a[o + 0] ^ a[o + 5 + 0] ^ a[o + 10 + 0] ^ a[o + 15 + 0] ^ a[o + 20 + 0];
+        c1 = a[o + 1] ^ a[o + 5 + 1] ^ a[o + 10 + 1] ^ a[o + 15 + 1] ^ a[o + 20 + 1];
+        c2 = a[o + 2] ^ a[o + 5 + 2] ^ a[o + 10 + 2] ^ a[o + 15 + 2] ^ a[o + 20 + 2];
+        c3 = a[o + 3] ^ a[o + 5 + 3] ^ a[o + 10 + 3] ^ a[o + 15 + 3] ^ a[o + 20 + 3];
+        c4 = a[o + 4] ^ a[o + 5 + 4] ^ a[o + 10 + 4] ^ a[o + 15 + 4] ^ a[o + 20 + 4];
+
+        t0 = (c0 << 1) ^ (c0 >>> (64 - 1)) ^ c3;
+        t1 = (c1 << 1) ^ (c1 >>> (64 - 1)) ^ c4;
+        t2 = (c2 << 1) ^ (c2 >>> (64 - 1)) ^ c0;
+        t3 = (c3 << 1) ^ (c3 >>> (64 - 1)) ^ c1;
+        t4 = (c4 << 1) ^ (c4 >>> (64 - 1)) ^ c2;
+
+        //theta (xorring part) + rho + pi
+        a[o +  0] ^= t1;
+        x = a[o +  1] ^ t2; a_10_ = (x <<  1) | (x >>> (64 -  1));
+        x = a[o +  6] ^ t2; a[o +  1] = (x << 44) | (x >>> (64 - 44));
+        x = a[o +  9] ^ t0; a[o +  6] = (x << 20) | (x >>> (64 - 20));
+        x = a[o + 22] ^ t3; a[o +  9] = (x << 61) | (x >>> (64 - 61));
+
+        x = a[o + 14] ^ t0; a[o + 22] = (x << 39) | (x >>> (64 - 39));
+        x = a[o + 20] ^ t1; a[o + 14] = (x << 18) | (x >>> (64 - 18));
+        x = a[o +  2] ^ t3; a[o + 20] = (x << 62) | (x >>> (64 - 62));
+        x = a[o + 12] ^ t3; a[o +  2] = (x << 43) | (x >>> (64 - 43));
+        x = a[o + 13] ^ t4; a[o + 12] = (x << 25) | (x >>> (64 - 25));
+
+        x = a[o + 19] ^ t0; a[o + 13] = (x <<  8) | (x >>> (64 -  8));
+        x = a[o + 23] ^ t4; a[o + 19] = (x << 56) | (x >>> (64 - 56));
+        x = a[o + 15] ^ t1; a[o + 23] = (x << 41) | (x >>> (64 - 41));
+        x = a[o +  4] ^ t0; a[o + 15] = (x << 27) | (x >>> (64 - 27));
+        x = a[o + 24] ^ t0; a[o +  4] = (x << 14) | (x >>> (64 - 14));
+
+        x = a[o + 21] ^ t2; a[o + 24] = (x <<  2) | (x >>> (64 -  2));
+        x = a[o +  8] ^ t4; a[o + 21] = (x << 55) | (x >>> (64 - 55));
+        x = a[o + 16] ^ t2; a[o +  8] = (x << 45) | (x >>> (64 - 45));
+        x = a[o +  5] ^ t1; a[o + 16] = (x << 36) | (x >>> (64 - 36));
+        x = a[o +  3] ^ t4; a[o +  5] = (x << 28) | (x >>> (64 - 28));
+
+        x = a[o + 18] ^ t4; a[o +  3] = (x << 21) | (x >>> (64 - 21));
+        x = a[o + 17] ^ t3; a[o + 18] = (x << 15) | (x >>> (64 - 15));
+        x = a[o + 11] ^ t2; a[o + 17] = (x << 10) | (x >>> (64 - 10));
+        x = a[o +  7] ^ t3; a[o + 11] = (x <<  6) | (x >>> (64 -  6));
+        x = a[o + 10] ^ t1; a[o +  7] = (x <<  3) | (x >>> (64 -  3));
+        a[o + 10] = a_10_;
+
+        //chi
+        final int end = o + 25;
+        for (int c = o; c < end; c += 5) {
+            x0 = a[c + 0]; x1 = a[c + 1]; x2 = a[c + 2]; x3 = a[c + 3]; x4 = a[c + 4];
+            a[c + 0] = x0 ^ ((~x1) & x2);
+            a[c + 1] = x1 ^ ((~x2) & x3);
+            a[c + 2] = x2 ^ ((~x3) & x4);
+            a[c + 3] = x3 ^ ((~x4) & x0);
+            a[c + 4] = x4 ^ ((~x0) & x1);
+        }
+
+        //iota
+        a[o] ^= rc;
+    }
+
     private static final long[] RC = {
             0x0000000000000001L, 0x0000000000008082L, 0x800000000000808AL, 0x8000000080008000L, 0x000000000000808BL,
             0x0000000080000001L, 0x8000000080008081L, 0x8000000000008009L, 0x000000000000008AL, 0x0000000000000088L,
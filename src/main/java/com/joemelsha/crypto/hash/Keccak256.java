@@ -0,0 +1,162 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.joemelsha.crypto.hash;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * One-shot Keccak-256. Each thread reuses its own {@link Keccak} state, so hashing into a caller-supplied output does
+ * not allocate.
+ */
+public final class Keccak256 {
+
+    public static final int DIGEST_LEN = 32;
+
+    private static final int RATE_BYTES = 136;
+
+    /* states permuted together; 8 * 25 longs stay well within L1 */
+    private static final int LANES = 8;
+
+    private static final ThreadLocal<Keccak> KECCAK = ThreadLocal.withInitial(() -> new Keccak(256));
+
+    private static final ThreadLocal<long[]> LANE_STATES = ThreadLocal.withInitial(() -> new long[LANES * 25]);
+
+    private Keccak256() {}
+
+    public static byte[] hash(byte[] in) {
+        byte[] out = new byte[DIGEST_LEN];
+        hash(in, 0, in.length, out, 0, DIGEST_LEN);
+        return out;
+    }
+
+    public static void hash(byte[] in, int off, int len, byte[] out, int outOff) {
+        hash(in, off, len, out, outOff, DIGEST_LEN);
+    }
+
+    /**
+     * Hashes {@code len} bytes of {@code in} and writes the first {@code outLen} bytes of the digest to {@code out}.
+     *
+     * @param in        the input
+     * @param off       the offset into the input
+     * @param len       the number of input bytes
+     * @param out       the output
+     * @param outOff    the offset into the output
+     * @param outLen    the number of digest bytes to output, at most 32, e.g. 4 for a function selector
+     */
+    public static void hash(byte[] in, int off, int len, byte[] out, int outOff, int outLen) {
+        checkRange(in.length, off, len);
+        checkRange(out.length, outOff, outLen);
+        checkOutLen(outLen);
+        final Keccak k = KECCAK.get();
+        k.engineUpdate(in, off, len);
+        k.engineDigest(out, outOff, outLen);
+    }
+
+    /**
+     * Hashes the input buffer's remaining bytes and puts the digest into the output buffer. Both buffers' positions are
+     * advanced.
+     *
+     * @param in    the input
+     * @param out   the output, with at least 32 bytes remaining
+     */
+    public static void hash(ByteBuffer in, ByteBuffer out) {
+        if (out.remaining() < DIGEST_LEN) {
+            throw new IllegalArgumentException("output buffer too small: " + out.remaining() + " < " + DIGEST_LEN);
+        }
+        final Keccak k = KECCAK.get();
+        k.engineUpdate(in);
+        k.digest(out, DIGEST_LEN);
+    }
+
+    /**
+     * Hashes {@code count} inputs of equal length {@code len}, stored back to back in {@code in} starting at
+     * {@code off}, and writes their digests back to back to {@code out} starting at {@code outOff}. Up to eight inputs
+     * are absorbed at a time into independent states whose permutations are interleaved round by round, which for
+     * many short inputs (e.g. addresses, storage keys) is faster than hashing them one at a time. Does not allocate.
+     *
+     * @param in        the inputs
+     * @param off       the offset of the first input
+     * @param len       the length of each input
+     * @param count     the number of inputs
+     * @param out       the output
+     * @param outOff    the offset at which to write the first digest
+     */
+    public static void hashAll(byte[] in, int off, int len, int count, byte[] out, int outOff) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count is negative: " + count);
+        }
+        checkRange(in.length, off, (int) Math.min(Integer.MAX_VALUE, (long) len * count));
+        checkRange(out.length, outOff, (int) Math.min(Integer.MAX_VALUE, (long) DIGEST_LEN * count));
+        final long[] states = LANE_STATES.get();
+        for (int i = 0; i < count; i += LANES) {
+            final int lanes = Math.min(LANES, count - i);
+            absorb(states, lanes, in, off + i * len, len);
+            squeeze(states, lanes, out, outOff + i * DIGEST_LEN);
+        }
+    }
+
+    private static void absorb(long[] states, int lanes, byte[] in, int off, int len) {
+        final int end = lanes * 25;
+        Arrays.fill(states, 0, end, 0L);
+        int pos = 0;
+        for ( ; pos <= len - RATE_BYTES; pos += RATE_BYTES) {
+            for (int o = 0, p = off + pos; o < end; o += 25, p += len) {
+                for (int w = 0; w < RATE_BYTES / Long.BYTES; w++) {
+                    states[o + w] ^= Keccak.getLongLittleEndian(in, p + (w << 3));
+                }
+            }
+            Keccak.keccak(states, lanes);
+        }
+        final int rem = len - pos;
+        for (int o = 0, p = off + pos; o < end; o += 25, p += len) {
+            int j = 0;
+            for ( ; j <= rem - Long.BYTES; j += Long.BYTES) {
+                states[o + (j >>> 3)] ^= Keccak.getLongLittleEndian(in, p + j);
+            }
+            for ( ; j < rem; j++) {
+                states[o + (j >>> 3)] ^= (in[p + j] & 0xFFL) << ((j & 7) << 3);
+            }
+            states[o + (rem >>> 3)] ^= 0x01L << ((rem & 7) << 3);
+            states[o + (RATE_BYTES >>> 3) - 1] ^= 0x80L << 56;
+        }
+        Keccak.keccak(states, lanes);
+    }
+
+    private static void squeeze(long[] states, int lanes, byte[] out, int outOff) {
+        for (int o = 0, end = lanes * 25; o < end; o += 25) {
+            for (int w = 0; w < DIGEST_LEN / Long.BYTES; w++) {
+                long x = states[o + w];
+                for (int b = 0; b < Long.BYTES; b++) {
+                    out[outOff++] = (byte) x;
+                    x >>>= 8;
+                }
+            }
+        }
+    }
+
+    private static void checkRange(int arrayLen, int off, int len) {
+        if (off < 0 || len < 0 || off > arrayLen - len) {
+            throw new IndexOutOfBoundsException("off: " + off + ", len: " + len + ", array length: " + arrayLen);
+        }
+    }
+
+    private static void checkOutLen(int outLen) {
+        if (outLen > DIGEST_LEN) {
+            throw new IllegalArgumentException("outLen exceeds digest length: " + outLen + " > " + DIGEST_LEN);
+        }
+    }
+}
@@ -20,13 +20,26 @@ import com.esaulpaugh.headlong.util.FastHex;
 import com.esaulpaugh.headlong.util.Strings;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 import static com.esaulpaugh.headlong.TestUtils.assertThrown;
+import static com.esaulpaugh.headlong.abi.UnitType.UNIT_LENGTH_BYTES;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class DecodeTest {
 
@@ -149,4 +162,257 @@ public class DecodeTest {
 
         assertThrown(IllegalArgumentException.class, "illegal boolean value @ 100", () -> f.decodeCall(array));
     }
+
+    @Test
+    public void testDecodePrimitive() {
+        final Random r = TestUtils.seededRandom();
+        final byte[] word = new byte[UNIT_LENGTH_BYTES];
+        for (String typeStr : new String[] { "bool", "uint8", "int8", "uint24", "int32", "uint32", "int40", "uint56", "int64" }) {
+            final UnitType<?> type = (UnitType<?>) TypeFactory.create(typeStr, null);
+            for (int i = 0; i < 5_000; i++) {
+                final BigInteger val = new BigInteger(r.nextInt(type.bitLength + 3), r);
+                final byte[] bytes = (r.nextBoolean() ? val.negate() : val).toByteArray();
+                Arrays.fill(word, bytes[0] < 0 ? (byte) 0xFF : (byte) 0x00);
+                System.arraycopy(bytes, 0, word, word.length - bytes.length, bytes.length);
+                if(r.nextInt(8) == 0) {
+                    word[r.nextInt(UNIT_LENGTH_BYTES - Long.BYTES)] ^= (byte) (1 + r.nextInt(255)); // corrupt the padding
+                }
+                final BigInteger bi = new BigInteger(word);
+                String expectedErr = null;
+                try {
+                    type.validateBigInt(bi);
+                } catch (IllegalArgumentException iae) {
+                    expectedErr = iae.getMessage();
+                }
+                try {
+                    final long decoded = type.decodePrimitive(ByteBuffer.wrap(word));
+                    assertNull(expectedErr);
+                    assertEquals(bi.longValue(), decoded);
+                    assertEquals(decoded, type.decodePrimitive(ByteBuffer.wrap(word).order(ByteOrder.LITTLE_ENDIAN)));
+                } catch (IllegalArgumentException iae) {
+                    assertEquals(expectedErr, iae.getMessage());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDecodeLazy() throws Throwable {
+        final Random r = TestUtils.seededRandom();
+        for (int i = 0; i < 500; i++) {
+            MonteCarloTestCase testCase = new MonteCarloTestCase(r.nextLong(), 3, 3, 3, 3, r, Function.newDefaultDigest());
+            TupleType tt = testCase.function.getParamTypes();
+            Tuple args = testCase.argsTuple;
+            byte[] encoding = tt.encode(args).array();
+
+            LazyTuple lazy = tt.decodeLazy(encoding);
+            assertEquals(args.size(), lazy.size());
+            final int index = args.size() == 0 ? -1 : r.nextInt(args.size());
+            if(index >= 0) {
+                assertFalse(lazy.isDecoded(index));
+                assertEquals(new Tuple(args.get(index)), new Tuple(lazy.get(index)));
+                assertTrue(lazy.isDecoded(index));
+            }
+            assertEquals(args, lazy.toTuple());
+        }
+
+        LazyTuple lazy = FUNCTION.decodeReturnLazy(FUNCTION.getOutputTypes().encode(EXPECTED).array());
+        assertEquals("w00t", lazy.get(1));
+        assertFalse(lazy.isDecoded(0));
+        assertEquals(EXPECTED, lazy.toTuple());
+
+        assertThrown(IllegalArgumentException.class, "not enough bytes remaining: 32 < 64", () -> FUNCTION.getOutputTypes().decodeLazy(Arrays.copyOf(RETURN_BYTES, 32)));
+
+        final TupleType simple = TupleType.parse("(uint8,string,bool)");
+        final LazyTuple simpleLazy = simple.decodeLazy(simple.encode(Tuple.of(7, "x", true)).array());
+        final List<Object> list = Arrays.asList(7, "x", true);
+        assertEquals(list, simpleLazy);
+        assertEquals(simpleLazy, list);
+        assertEquals(list.hashCode(), simpleLazy.hashCode());
+    }
+
+    @Test
+    public void testDecodeElement() throws Throwable {
+        final Random r = TestUtils.seededRandom();
+        for (int i = 0; i < 1_000; i++) {
+            MonteCarloTestCase testCase = new MonteCarloTestCase(r.nextLong(), 3, 3, 3, 3, r, Function.newDefaultDigest());
+            TupleType tt = testCase.function.getParamTypes();
+            if(tt.size() == 0) {
+                continue;
+            }
+            final int[] path = new int[4];
+            int depth = 0;
+            ABIType<?> type = tt;
+            Object expected = testCase.argsTuple;
+            do {
+                final int len = Array.getLength(expected instanceof Tuple ? ((Tuple) expected).elements : expected);
+                if(len == 0) {
+                    break;
+                }
+                final int index = r.nextInt(len);
+                path[depth++] = index;
+                if(type instanceof TupleType) {
+                    type = ((TupleType) type).get(index);
+                    expected = ((Tuple) expected).get(index);
+                } else {
+                    type = ((ArrayType<?, ?>) type).getElementType();
+                    expected = Array.get(expected, index);
+                }
+            } while (depth < path.length && r.nextBoolean()
+                    && (type instanceof TupleType || type instanceof ArrayType && !(((ArrayType<?, ?>) type).getElementType() instanceof ByteType)));
+
+            final byte[] encoding = tt.encode(testCase.argsTuple).array();
+            final ByteBuffer bb = ByteBuffer.allocate(encoding.length + 1);
+            bb.put((byte) 0).put(encoding).position(1);
+            assertEquals(new Tuple(expected), new Tuple(tt.decodeElement(bb, Arrays.copyOf(path, depth))));
+        }
+
+        final TupleType tt = TupleType.parse("(uint8,(string,int32[])[],bytes)");
+        final byte[] encoding = tt.encode(Tuple.of(7, new Tuple[] { Tuple.of("a", new int[] { 1, 2 }), Tuple.of("b", new int[] { -3 }) }, new byte[1])).array();
+        assertEquals(-3, tt.decodeElement(ByteBuffer.wrap(encoding), 1, 1, 1, 0));
+        assertEquals("b", tt.decodeElement(ByteBuffer.wrap(encoding), 1, 1, 0));
+        assertEquals(7, tt.decodeElement(ByteBuffer.wrap(encoding), 0));
+        assertThrown(IllegalArgumentException.class, "path is empty", () -> tt.decodeElement(ByteBuffer.wrap(encoding)));
+        assertThrown(IllegalArgumentException.class, "index out of bounds: 2 (length 2)", () -> tt.decodeElement(ByteBuffer.wrap(encoding), 1, 2));
+        assertThrown(IllegalArgumentException.class, "path too long: can't select element of uint8", () -> tt.decodeElement(ByteBuffer.wrap(encoding), 0, 0));
+        assertThrown(IllegalArgumentException.class, "can't select element of bytes", () -> tt.decodeElement(ByteBuffer.wrap(encoding), 2, 0));
+    }
+
+    @Test
+    public void testForEachElement() throws Throwable {
+        final Random r = TestUtils.seededRandom();
+        for (int i = 0; i < 1_000; i++) {
+            MonteCarloTestCase testCase = new MonteCarloTestCase(r.nextLong(), 3, 3, 3, 3, r, Function.newDefaultDigest());
+            TupleType tt = testCase.function.getParamTypes();
+            final byte[] encoding = tt.encode(testCase.argsTuple).array();
+            for (int j = 0; j < tt.size(); j++) {
+                ABIType<?> type = tt.get(j);
+                if(type instanceof ArrayType && !(((ArrayType<?, ?>) type).getElementType() instanceof ByteType)) {
+                    final Object expected = testCase.argsTuple.get(j);
+                    final List<Object> streamed = new ArrayList<>();
+                    tt.forEachElement(ByteBuffer.wrap(encoding), streamed::add, j);
+                    assertEquals(Array.getLength(expected), streamed.size());
+                    for (int k = 0; k < streamed.size(); k++) {
+                        assertEquals(new Tuple(Array.get(expected, k)), new Tuple(streamed.get(k)));
+                    }
+                }
+            }
+        }
+
+        final TupleType tt = TupleType.parse("(uint256[],(string,bool)[],bytes)");
+        final BigInteger[] bigInts = new BigInteger[] { BigInteger.ONE, BigInteger.TEN };
+        final Tuple[] tuples = new Tuple[] { Tuple.of("a", true), Tuple.of("bcd", false), Tuple.of("", true) };
+        final byte[] encoding = tt.encode(Tuple.of(bigInts, tuples, new byte[0])).array();
+        final List<Object> streamed = new ArrayList<>();
+        tt.forEachElement(ByteBuffer.wrap(encoding), streamed::add, 0);
+        tt.forEachElement(ByteBuffer.wrap(encoding), streamed::add, 1);
+        assertEquals(Arrays.asList(BigInteger.ONE, BigInteger.TEN, tuples[0], tuples[1], tuples[2]), streamed);
+
+        final ByteBuffer bb = ByteBuffer.wrap(encoding);
+        bb.position(tt.headOffsets[3]); // the first tail
+        streamed.clear();
+        ((ArrayType<?, ?>) tt.get(0)).forEachElement(bb, streamed::add);
+        assertEquals(Arrays.asList((Object[]) bigInts), streamed);
+        assertEquals(tt.headOffsets[3] + 3 * UNIT_LENGTH_BYTES, bb.position());
+
+        assertThrown(IllegalArgumentException.class, "can't stream elements of bytes", () -> tt.forEachElement(ByteBuffer.wrap(encoding), streamed::add, 2));
+        assertThrown(IllegalArgumentException.class, "not an array: (string,bool)", () -> tt.forEachElement(ByteBuffer.wrap(encoding), streamed::add, 1, 0));
+    }
+
+    @Test
+    public void testParallelDecode() throws Throwable {
+        final Random r = TestUtils.seededRandom();
+        final TupleType tt = TupleType.parse("((bool,bytes)[],(uint256,string[])[3],bytes[])");
+        final Tuple[] results = new Tuple[5_000];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = Tuple.of(r.nextBoolean(), TestUtils.randomBytes(r.nextInt(100), r));
+        }
+        final Tuple[] nested = new Tuple[3];
+        for (int i = 0; i < nested.length; i++) {
+            final String[] strings = new String[ArrayType.PARALLEL_DECODE_THRESHOLD + i];
+            for (int j = 0; j < strings.length; j++) {
+                strings[j] = Integer.toHexString(r.nextInt());
+            }
+            nested[i] = Tuple.of(BigInteger.valueOf(i), strings);
+        }
+        final Tuple values = Tuple.of(results, nested, new byte[][] { new byte[0], new byte[33] });
+        final byte[] encoded = tt.encode(values).array();
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(values, tt.decode(encoded, pool));
+            final Function f = new Function("aggregate()", tt.getCanonicalType());
+            assertEquals(values, f.decodeReturn(encoded, pool));
+
+            final byte[] corrupt = encoded.clone();
+            final ByteBuffer offsets = ByteBuffer.wrap(corrupt, 4 * UNIT_LENGTH_BYTES, 2 * UNIT_LENGTH_BYTES); // after the three heads and the length
+            final int offsetZero = offsets.getInt(offsets.position() + UNIT_LENGTH_BYTES - Integer.BYTES);
+            final int offsetOneIdx = offsets.position() + 2 * UNIT_LENGTH_BYTES - Integer.BYTES;
+            final int offsetOne = offsets.getInt(offsetOneIdx);
+            offsets.putInt(offsetOneIdx, offsetZero); // element 1 aliases element 0
+            assertThrown(IllegalArgumentException.class, "illegal offset at index 1: " + offsetZero + " != " + offsetOne, () -> tt.decode(corrupt, pool));
+            assertThrown(IllegalArgumentException.class, "unconsumed bytes: 1 remaining", () -> tt.decode(Arrays.copyOf(encoded, encoded.length + 1), pool));
+        } finally {
+            pool.shutdown();
+        }
+
+        final ForkJoinPool caller = new ForkJoinPool(1);
+        final ForkJoinPool target = new ForkJoinPool(2);
+        try {
+            // a worker of another pool must still decode in the pool it was given
+            assertEquals(values, caller.submit(() -> tt.decode(encoded, target)).get());
+            assertTrue(target.getPoolSize() > 0);
+        } finally {
+            caller.shutdown();
+            target.shutdown();
+        }
+    }
+
+    @Test
+    public void testDecodeAll() throws Throwable {
+        final Random r = TestUtils.seededRandom();
+        final Function f = new Function("getReserves()", "(uint112,bytes,string[],bool)");
+        final TupleType tt = f.getOutputTypes();
+        final List<byte[]> payloads = new ArrayList<>();
+        final List<Tuple> expected = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            final Tuple values = Tuple.of(
+                    new BigInteger(112, r),
+                    TestUtils.randomBytes(r.nextInt(70), r),
+                    new String[] { Integer.toString(i), Long.toHexString(r.nextLong()) },
+                    r.nextBoolean()
+            );
+            expected.add(values);
+            payloads.add(tt.encode(values).array());
+        }
+        assertEquals(expected, tt.decodeAll(payloads));
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertEquals(expected, f.decodeReturnAll(payloads, executor));
+
+            final ByteBuffer[] buffers = new ByteBuffer[payloads.size()];
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = ByteBuffer.wrap(payloads.get(i));
+            }
+            final Tuple[] out = new Tuple[buffers.length];
+            tt.decodeAll(buffers, out, executor);
+            assertEquals(expected, Arrays.asList(out));
+
+            final List<byte[]> bad = new ArrayList<>(payloads);
+            bad.set(700, Arrays.copyOf(payloads.get(700), payloads.get(700).length + 1));
+            assertThrown(IllegalArgumentException.class, "payload 700: unconsumed bytes: 1 remaining", () -> tt.decodeAll(bad, executor));
+            final byte[] badBool = payloads.get(3).clone();
+            badBool[4 * UNIT_LENGTH_BYTES - 1] = 2;
+            bad.set(3, badBool);
+            assertThrown(IllegalArgumentException.class, "payload 3: ", () -> tt.decodeAll(bad));
+            bad.set(3, payloads.get(3));
+            bad.set(700, payloads.get(700));
+            bad.set(5, Arrays.copyOf(payloads.get(5), 40));
+            assertThrown(IllegalArgumentException.class, "payload 5: not enough bytes", () -> tt.decodeAll(bad));
+            assertThrown(IllegalArgumentException.class, "payload 5: not enough bytes", () -> tt.decodeAll(bad, executor));
+            assertThrown(IndexOutOfBoundsException.class, "out length 2 too small for 3 payloads", () -> tt.decodeAll(new ByteBuffer[3], new Tuple[2]));
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
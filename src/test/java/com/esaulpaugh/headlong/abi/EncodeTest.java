@@ -23,11 +23,23 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.opentest4j.AssertionFailedError;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Pipe;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Supplier;
 
 import static com.esaulpaugh.headlong.TestUtils.assertThrown;
@@ -35,6 +47,9 @@ import static com.esaulpaugh.headlong.abi.TypeFactory.EMPTY_PARAMETER;
 import static com.esaulpaugh.headlong.abi.UnitType.UNIT_LENGTH_BYTES;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class EncodeTest {
 
@@ -401,4 +416,305 @@ public class EncodeTest {
                 () -> Function.parse("(int8[])").encodeCall(Tuple.of((Object) new int[] { 120, 256 }))
         );
     }
+
+    @Test
+    public void testEncodePlan() {
+        final Random r = TestUtils.seededRandom();
+        final EncodePlan plan = new EncodePlan(0);
+        for (int i = 0; i < 500; i++) {
+            MonteCarloTestCase testCase = new MonteCarloTestCase(r.nextLong(), 3, 3, 3, 3, r, Function.newDefaultDigest());
+            TupleType tt = testCase.function.getParamTypes();
+            Tuple args = testCase.argsTuple;
+
+            ByteBuffer expected = ByteBuffer.allocate(tt.validate(args));
+            tt.encodeTail(args, expected); // measures dynamic elements on demand
+
+            assertArrayEquals(expected.array(), tt.encode(args, plan).array());
+            assertArrayEquals(expected.array(), tt.encode(args).array());
+        }
+    }
+
+    @Test
+    public void testEncodeInto() {
+        final Random r = TestUtils.seededRandom();
+        final MessageDigest md = Function.newDefaultDigest();
+        final EncodePlan plan = new EncodePlan();
+        for (int i = 0; i < 1_000; i++) {
+            MonteCarloTestCase testCase = new MonteCarloTestCase(r.nextLong(), 3, 3, 3, 3, r, md);
+            assertEncodeInto(testCase.function.getParamTypes(), testCase.argsTuple, md, plan);
+        }
+        // larger than the scratch buffer
+        final boolean[] bools = new boolean[700];
+        for (int i = 0; i < bools.length; i++) {
+            bools[i] = r.nextBoolean();
+        }
+        final BigInteger[] uints = new BigInteger[100];
+        for (int i = 0; i < uints.length; i++) {
+            uints[i] = new BigInteger(256, r);
+        }
+        final int[] uint8s = new int[600];
+        for (int i = 0; i < uint8s.length; i++) {
+            uint8s[i] = r.nextInt(256);
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append((char) ('a' + r.nextInt(26)));
+        }
+        assertEncodeInto(
+                TupleType.parse("(bool[],uint256[100],uint8[],string,(bytes,uint256[100]))"),
+                Tuple.of(
+                        bools,
+                        uints,
+                        uint8s,
+                        sb.toString(),
+                        Tuple.of(TestUtils.randomBytes(1025, r), uints)
+                ),
+                md,
+                plan
+        );
+    }
+
+    private static void assertEncodeInto(TupleType tt, Tuple args, MessageDigest md, EncodePlan plan) {
+        md.reset();
+        final byte[] expected = md.digest(tt.encode(args).array());
+        tt.encodeInto(args, md, plan);
+        assertArrayEquals(expected, md.digest());
+
+        final byte[] expectedPacked = md.digest(tt.encodePacked(args).array());
+        tt.encodePackedInto(args, md);
+        assertArrayEquals(expectedPacked, md.digest());
+    }
+
+    @Test
+    public void testEncodeTrusted() {
+        final Random r = TestUtils.seededRandom();
+        final MessageDigest md = Function.newDefaultDigest();
+        final EncodePlan plan = new EncodePlan();
+        for (int i = 0; i < 1_000; i++) {
+            MonteCarloTestCase testCase = new MonteCarloTestCase(r.nextLong(), 3, 3, 3, 3, r, md);
+            final Function f = testCase.function;
+            final Tuple args = testCase.argsTuple;
+            final byte[] expected = f.getParamTypes().encode(args).array();
+            assertArrayEquals(expected, f.getParamTypes().encodeTrusted(args).array());
+            final ByteBuffer dest = ByteBuffer.allocate(expected.length);
+            f.getParamTypes().encodeTrusted(args, dest, plan);
+            assertArrayEquals(expected, dest.array());
+            assertArrayEquals(f.encodeCall(args).array(), f.encodeCallTrusted(args).array());
+        }
+    }
+
+    @Test
+    public void testStringBytesReuse() {
+        final TupleType tt = TupleType.parse("(string,(string[],bytes,string)[2],string[][],uint8)");
+        final Tuple args = Tuple.of(
+                "ascii only",
+                new Tuple[] {
+                        Tuple.of(new String[] { "\u00e9t\u00e9", "", "\ud83d\ude00" }, new byte[] { 1, 2, 3 }, "x"),
+                        Tuple.of(new String[0], new byte[0], "caf\u00e9")
+                },
+                new String[][] { { "a", "\u4e2d\u6587" }, {} },
+                255
+        );
+        final ByteBuffer expected = ByteBuffer.allocate(tt.validate(args));
+        tt.encodeTail(args, expected);
+        final EncodePlan plan = new EncodePlan(1);
+        for (int i = 0; i < 3; i++) { // plan is reused
+            assertArrayEquals(expected.array(), tt.encode(args, plan).array());
+            final ByteBuffer dest = ByteBuffer.allocate(expected.capacity());
+            tt.encodeTrusted(args, dest, plan);
+            assertArrayEquals(expected.array(), dest.array());
+        }
+        assertEquals(args, tt.decode(expected.array()));
+        final MessageDigest md = Function.newDefaultDigest();
+        assertEncodeInto(tt, args, md, plan);
+    }
+
+    @Test
+    public void testInsertBigInteger() {
+        final Random r = TestUtils.seededRandom();
+        for (int paddedLen : new int[] { 1, 3, 7, 8, 9, 16, 32 }) {
+            final int bits = paddedLen * Byte.SIZE;
+            for (int i = 0; i < 2_000; i++) {
+                BigInteger val = new BigInteger(1 + r.nextInt(bits - 1), r);
+                if(r.nextBoolean()) {
+                    val = val.negate();
+                }
+                final ByteBuffer actual = ByteBuffer.allocate(paddedLen);
+                Encoding.insertInt(val, paddedLen, actual);
+                assertArrayEquals(twosComplement(val, paddedLen), actual.array());
+            }
+        }
+        final BigInteger[] edges = {
+                BigInteger.ZERO, BigInteger.valueOf(Long.MAX_VALUE), BigInteger.valueOf(Long.MIN_VALUE),
+                BigInteger.ONE.shiftLeft(63), BigInteger.ONE.shiftLeft(63).negate().subtract(BigInteger.ONE),
+                BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE), BigInteger.ONE.shiftLeft(255).negate()
+        };
+        for (BigInteger val : edges) {
+            final ByteBuffer actual = ByteBuffer.allocate(UNIT_LENGTH_BYTES);
+            Encoding.insertInt(val, UNIT_LENGTH_BYTES, actual);
+            assertArrayEquals(twosComplement(val, UNIT_LENGTH_BYTES), actual.array());
+        }
+    }
+
+    private static byte[] twosComplement(BigInteger val, int len) {
+        final byte[] arr = val.toByteArray();
+        final byte[] out = new byte[len];
+        if(val.signum() < 0) {
+            Arrays.fill(out, (byte) 0xFF);
+        }
+        final int n = Math.min(arr.length, len);
+        System.arraycopy(arr, arr.length - n, out, len - n, n);
+        return out;
+    }
+
+    @Test
+    public void testParallelEncode() throws Throwable {
+        final Random r = TestUtils.seededRandom();
+        final MessageDigest md = Function.newDefaultDigest();
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int i = 0; i < 1_000; i++) {
+                MonteCarloTestCase testCase = new MonteCarloTestCase(r.nextLong(), 3, 3, 3, 3, r, md);
+                final TupleType tt = testCase.function.getParamTypes();
+                final Tuple args = testCase.argsTuple;
+                final byte[] expected = tt.encode(args).array();
+                for (int threshold = 1; threshold <= 3; threshold++) {
+                    final ByteBuffer dest = ByteBuffer.allocate(expected.length);
+                    tt.encodeParallel(args, dest, pool, threshold);
+                    assertArrayEquals(expected, dest.array());
+                }
+            }
+            final TupleType tt = TupleType.parse("(uint256[],(bool,bytes)[],string[2],(uint8,string[])[])");
+            final BigInteger[] uints = new BigInteger[3_000];
+            for (int i = 0; i < uints.length; i++) {
+                uints[i] = new BigInteger(1 + r.nextInt(256), r);
+            }
+            final Tuple[] results = new Tuple[5_000];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = Tuple.of(r.nextBoolean(), TestUtils.randomBytes(r.nextInt(100), r));
+            }
+            final String[] strings = new String[ArrayType.PARALLEL_ENCODE_THRESHOLD];
+            Arrays.fill(strings, "\u00e9");
+            final Tuple values = Tuple.of(uints, results, new String[] { "a", "b" }, new Tuple[] { Tuple.of(7, strings) });
+            assertArrayEquals(tt.encode(values).array(), tt.encodeParallel(values, pool).array());
+
+            assertThrown(IllegalArgumentException.class, "threshold must be positive", () -> tt.encodeParallel(values, ByteBuffer.allocate(0), pool, 0));
+
+            uints[2_000] = BigInteger.ONE.shiftLeft(256);
+            assertParallelValidation(tt, values, pool);
+            uints[2_000] = BigInteger.ONE;
+            results[4_321] = Tuple.of(true, "not bytes");
+            assertParallelValidation(tt, values, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertParallelValidation(TupleType tt, Tuple values, ForkJoinPool pool) throws Throwable {
+        String expected = null;
+        try {
+            tt.validate(values);
+        } catch (IllegalArgumentException iae) {
+            expected = iae.getMessage();
+        }
+        assertThrown(IllegalArgumentException.class, expected, () -> tt.encodeParallel(values, pool));
+    }
+
+    @Test
+    public void testEncodeCallPooled() throws Throwable {
+        final Random r = TestUtils.seededRandom();
+        final MessageDigest md = Function.newDefaultDigest();
+        final BufferPool pool = new BufferPool(4);
+        for (int i = 0; i < 500; i++) {
+            MonteCarloTestCase testCase = new MonteCarloTestCase(r.nextLong(), 3, 3, 3, 3, r, md);
+            final byte[] expected = testCase.function.encodeCall(testCase.argsTuple).array();
+            try (BufferPool.Lease lease = testCase.function.encodeCall(testCase.argsTuple, pool)) {
+                final ByteBuffer bb = lease.buffer();
+                assertEquals(0, bb.position());
+                assertEquals(expected.length, bb.remaining());
+                final byte[] actual = new byte[bb.remaining()];
+                bb.get(actual);
+                assertArrayEquals(expected, actual);
+            }
+        }
+
+        final BufferPool.Lease a = pool.acquire(100);
+        assertEquals(128, a.buffer().capacity());
+        assertEquals(100, a.buffer().limit());
+        final byte[] array = a.buffer().array();
+        a.close();
+        final BufferPool.Lease b = pool.acquire(65);
+        assertNotSame(a, b);
+        assertSame(array, b.buffer().array()); // reused
+        assertThrown(IllegalStateException.class, "lease already released", a::close);
+        assertThrown(IllegalStateException.class, "lease already released", a::buffer);
+        b.close();
+        assertThrown(IllegalStateException.class, "lease already released", b::close);
+        assertThrown(IllegalStateException.class, "lease already released", b::buffer);
+        assertEquals(64, pool.acquire(0).buffer().capacity());
+        assertEquals((1 << 20) + 1, pool.acquire((1 << 20) + 1).buffer().capacity());
+        assertThrown(IllegalArgumentException.class, "length is negative: -1", () -> pool.acquire(-1));
+        assertThrown(IllegalArgumentException.class, "maxPerClass must be positive", () -> new BufferPool(0));
+        assertThrown(IllegalArgumentException.class, "tuple index 0: ", () -> new Function("f(uint8)").encodeCall(Tuple.of(256), pool));
+    }
+
+    @Test
+    public void testEncodeIntoChannel() throws Throwable {
+        final Random r = TestUtils.seededRandom();
+        final MessageDigest md = Function.newDefaultDigest();
+        final Path tmp = Files.createTempFile("headlong", ".bin");
+        try (FileChannel file = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < 500; i++) {
+                MonteCarloTestCase testCase = new MonteCarloTestCase(r.nextLong(), 3, 3, 3, 3, r, md);
+                assertEncodeIntoChannel(testCase.function, testCase.argsTuple, file);
+            }
+            final Function f = new Function("submit(bytes[],string,uint256[])");
+            final byte[][] blobs = new byte[][] { TestUtils.randomBytes(20_000, r), TestUtils.randomBytes(ByteSink.STAGING_CAPACITY, r), new byte[0] };
+            final BigInteger[] uints = new BigInteger[1_000];
+            for (int i = 0; i < uints.length; i++) {
+                uints[i] = new BigInteger(256, r);
+            }
+            assertEncodeIntoChannel(f, Tuple.of(blobs, new String(new char[10_000]).replace('\0', 'z'), uints), file);
+        } finally {
+            Files.delete(tmp);
+        }
+
+        final WritableByteChannel broken = Channels.newChannel(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("disk full");
+            }
+        });
+        assertThrown(IOException.class, "disk full", () -> new Function("f(uint8)").encodeCallToChannel(Tuple.of(1), broken));
+
+        final Pipe pipe = Pipe.open();
+        try (Pipe.SourceChannel source = pipe.source(); Pipe.SinkChannel nonBlocking = pipe.sink()) {
+            nonBlocking.configureBlocking(false);
+            assertThrown(IllegalArgumentException.class, "channel must be in blocking mode", () -> new Function("f(uint8)").encodeCallToChannel(Tuple.of(1), nonBlocking));
+        }
+    }
+
+    private static void assertEncodeIntoChannel(Function f, Tuple args, FileChannel file) throws IOException {
+        final byte[] expected = f.encodeCall(args).array();
+        final TupleType tt = f.getParamTypes();
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        f.encodeCallToChannel(args, Channels.newChannel(baos)); // not gathering
+        assertArrayEquals(expected, baos.toByteArray());
+
+        file.truncate(0).position(0);
+        tt.encodeToChannel(args, file); // gathering
+        final ByteBuffer read = ByteBuffer.allocate((int) file.size());
+        file.read(read, 0);
+        assertArrayEquals(Arrays.copyOfRange(expected, Function.SELECTOR_LEN, expected.length), read.array());
+
+        baos.reset();
+        tt.encodePackedToChannel(args, Channels.newChannel(baos));
+        assertArrayEquals(tt.encodePacked(args).array(), baos.toByteArray());
+    }
 }
@@ -29,6 +29,7 @@ import java.util.Random;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -68,7 +69,7 @@ public class EqualsTest {
 
             assertTrue(equals);
 
-            assertNotSame(a.getParamTypes().canonicalType, b.getParamTypes().canonicalType);
+            assertSame(a.getParamTypes(), b.getParamTypes()); // interned
 
             assertEquals(a, b);
 
@@ -78,7 +79,11 @@ public class EqualsTest {
         System.out.println("n = " + n + ", maxIters = " + maxIters);
 
         assertSame(TupleType.parse("(uint)").elementTypes[0].canonicalType, TupleType.parse("(uint)").elementTypes[0].canonicalType);
-        assertNotSame(Function.parse("(uint)").getParamTypes().canonicalType, Function.parse("(uint)").getParamTypes().canonicalType);
+        assertSame(Function.parse("(uint)").getParamTypes().canonicalType, Function.parse("(uint)").getParamTypes().canonicalType);
+        assertSame(TupleType.parse("(uint8[],(bool,string))").get(1), TupleType.parse("((bool,string),int)").get(0));
+        assertSame(TupleType.parse("(int)"), TupleType.parse("(int256)"));
+        assertNotSame(TypeFactory.create("(uint8)", "x"), TypeFactory.create("(uint8)", "x"));
+        assertNull(TupleType.parse("(uint8)").getName());
 
         assertEquals(
                 Function.parse("(bool)", new WrappedKeccak(256)),
@@ -15,11 +15,18 @@
 */
 package com.esaulpaugh.headlong.abi;
 
+import com.esaulpaugh.headlong.TestUtils;
+import com.esaulpaugh.headlong.util.Strings;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class EventTest {
 
@@ -38,4 +45,68 @@ public class EventTest {
         assertEquals(TupleType.parse("((),ufixed256x10)"), event.getIndexedParams());
         assertEquals(TupleType.parse("(int256,uint256,bool[])"), event.getNonIndexedParams());
     }
+
+    @Test
+    public void testDecodeLog() throws Throwable {
+        final Event transfer = new Event("Transfer", "(address,address,uint256)", new boolean[] { true, true, false });
+        assertEquals("ddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef", Strings.encode(transfer.topic0()));
+        assertSame(transfer.getIndexedParams(), transfer.getIndexedParams());
+
+        final BigInteger from = new BigInteger("ff00000000000000000000000000000000000001", 16);
+        final BigInteger to = BigInteger.valueOf(2L);
+        final BigInteger value = BigInteger.valueOf(1_000_000L);
+        final byte[][] topics = new byte[][] {
+                transfer.topic0(),
+                TupleType.parse("(address)").encode(Tuple.singleton(from)).array(),
+                TupleType.parse("(address)").encode(Tuple.singleton(to)).array()
+        };
+        final byte[] data = transfer.getNonIndexedParams().encode(Tuple.singleton(value)).array();
+        assertEquals(Tuple.of(from, to, value), transfer.decodeLog(topics, data));
+
+        final Event named = new Event("Named", "(string,bytes4,uint8)", new boolean[] { true, true, false });
+        final byte[] nameHash = Function.newDefaultDigest().digest(Strings.decode("abc", Strings.UTF_8));
+        final byte[][] namedTopics = new byte[][] {
+                named.topic0(),
+                nameHash,
+                TupleType.parse("(bytes4)").encode(Tuple.singleton(new byte[] { 1, 2, 3, 4 })).array()
+        };
+        final byte[] namedData = named.getNonIndexedParams().encode(Tuple.singleton(9)).array();
+        assertEquals(Tuple.of(nameHash, new byte[] { 1, 2, 3, 4 }, 9), named.decodeLog(namedTopics, namedData));
+
+        final Event anon = new Event("Anon", "(uint16,bool)", new boolean[] { true, false }, true);
+        final byte[][] anonTopics = new byte[][] { TupleType.parse("(uint16)").encode(Tuple.singleton(7)).array() };
+        final byte[] anonData = anon.getNonIndexedParams().encode(Tuple.singleton(true)).array();
+        assertEquals(Tuple.of(7, true), anon.decodeLog(anonTopics, anonData));
+
+        TestUtils.assertThrown(IllegalArgumentException.class, "expected 3 topics but found 2", () -> transfer.decodeLog(Arrays.copyOf(topics, 2), data));
+        TestUtils.assertThrown(IllegalArgumentException.class, "unexpected topic0: expected ddf252ad", () -> transfer.decodeLog(namedTopics, data));
+
+        final EventRegistry registry = new EventRegistry(Arrays.asList(transfer, named, anon, transfer));
+        assertEquals(2, registry.size());
+        assertSame(transfer, registry.get(topics[0]));
+        assertSame(named, registry.get(namedTopics[0]));
+        assertNull(registry.get(anonTopics[0]));
+        assertEquals(Tuple.of(from, to, value), registry.decodeLog(topics, data));
+        assertEquals(Tuple.of(nameHash, new byte[] { 1, 2, 3, 4 }, 9), registry.decodeLog(namedTopics, namedData));
+        TestUtils.assertThrown(IllegalArgumentException.class, "unknown topic0: ", () -> registry.decodeLog(anonTopics, anonData));
+        TestUtils.assertThrown(IllegalArgumentException.class, "no topics", () -> registry.decodeLog(new byte[0][], anonData));
+        TestUtils.assertThrown(IllegalArgumentException.class, "conflicting events with signature Transfer(address,address,uint256) and 2 topics",
+                () -> new EventRegistry(Arrays.asList(
+                        new Event("Transfer", "(address,address,uint256)", new boolean[] { false, true, false }),
+                        new Event("Transfer", "(address,address,uint256)", new boolean[] { true, false, false })
+                )));
+
+        // ERC-20 and ERC-721 Transfer share topic0 and differ only in whether the value/tokenId is indexed
+        final Event erc721 = new Event("Transfer", "(address,address,uint256)", new boolean[] { true, true, true });
+        final byte[][] erc721Topics = Arrays.copyOf(topics, 4);
+        erc721Topics[3] = TupleType.parse("(uint256)").encode(Tuple.singleton(value)).array();
+        final EventRegistry tokens = new EventRegistry(Arrays.asList(transfer, erc721));
+        assertEquals(2, tokens.size());
+        assertSame(transfer, tokens.get(topics[0], 3));
+        assertSame(erc721, tokens.get(topics[0], 4));
+        assertNull(tokens.get(topics[0], 2));
+        assertEquals(Tuple.of(from, to, value), tokens.decodeLog(topics, data));
+        assertEquals(Tuple.of(from, to, value), tokens.decodeLog(erc721Topics, new byte[0]));
+        TestUtils.assertThrown(IllegalArgumentException.class, "topics but found 2", () -> tokens.decodeLog(Arrays.copyOf(topics, 2), data));
+    }
 }
@@ -2,13 +2,19 @@ package com.esaulpaugh.headlong.abi;
 
 import com.esaulpaugh.headlong.TestUtils;
 import com.esaulpaugh.headlong.abi.util.WrappedKeccak;
+import com.esaulpaugh.headlong.util.Strings;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class FunctionTest {
 
@@ -98,4 +104,37 @@ public class FunctionTest {
         System.out.println(f);
         assertEquals("ID       45137903\n0        2221201f2221201f2221201f2221201f2221201f2221201f2221201f2221201f", f);
     }
+
+    @Test
+    public void testFunctionRegistry() throws Throwable {
+        final List<Function> functions = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            functions.add(new Function("f" + i + "(uint16,string)"));
+        }
+        functions.add(new Function("f7(uint16,string)", "(bool)")); // same selector, same signature
+        functions.add(new Function(Function.Type.FALLBACK, "()", null, Function.newDefaultDigest()));
+
+        final FunctionRegistry registry = new FunctionRegistry(functions);
+        assertEquals(1_000, registry.size());
+        for (int i = 0; i < 1_000; i++) {
+            final Function f = functions.get(i);
+            final Tuple args = Tuple.of(i, "arg" + i);
+            final ByteBuffer call = f.encodeCall(args);
+            call.flip();
+            assertSame(f, registry.get(call));
+            assertEquals(0, call.position());
+            assertSame(f, registry.get((ByteBuffer) call.duplicate().order(ByteOrder.LITTLE_ENDIAN)));
+            assertEquals(args, registry.decodeCall(call));
+            assertEquals(args, registry.decodeCall(call.array()));
+        }
+        assertNull(registry.get(0));
+
+        final byte[] unknown = new Function("g(uint16,string)").encodeCall(Tuple.of(0, "")).array();
+        TestUtils.assertThrown(IllegalArgumentException.class, "unknown selector: " + Strings.encode(unknown, 0, Function.SELECTOR_LEN, Strings.HEX), () -> registry.decodeCall(unknown));
+
+        TestUtils.assertThrown(IllegalArgumentException.class, "not enough bytes for selector: 3 < 4", () -> registry.decodeCall(new byte[3]));
+        TestUtils.assertThrown(IllegalArgumentException.class, "not enough bytes for selector: 0 < 4", () -> registry.get(ByteBuffer.allocate(0)));
+
+        assertEquals(0, FunctionRegistry.fromJson("[]").size());
+    }
 }
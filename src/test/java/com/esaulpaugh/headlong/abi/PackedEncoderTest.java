@@ -311,4 +311,27 @@ public class PackedEncoderTest {
         assertTrue(resultL < 0);
         assertEquals(expectedL, resultL);
     }
+
+    @Test
+    public void testLayout() throws Throwable {
+        TupleType tupleType = TupleType.parse("(uint256,(uint72,int16)[2],address,uint64[],bool,(bytes3,uint8))");
+        BigInteger top = BigInteger.ONE.shiftLeft(255);
+        Tuple values = Tuple.of(
+                top,
+                new Tuple[] { Tuple.of(BigInteger.ONE.shiftLeft(71), -2), Tuple.of(BigInteger.ZERO, 300) },
+                BigInteger.ONE.shiftLeft(159),
+                new BigInteger[] { BigInteger.ONE.shiftLeft(63), BigInteger.ONE },
+                true,
+                Tuple.of(new byte[] { 1, 2, 3 }, 255)
+        );
+        byte[] packed = tupleType.encodePacked(values).array();
+        assertEquals(values, PackedDecoder.decode(tupleType, packed));
+        assertEquals(values, PackedDecoder.decode(tupleType, packed)); // cached layout
+
+        TestUtils.assertThrown(IllegalArgumentException.class, "packed array length not a multiple of element length: 15 % 8 != 0", () -> PackedDecoder.decode(tupleType, Arrays.copyOf(packed, packed.length - 1)));
+        TestUtils.assertThrown(IllegalArgumentException.class, "not enough bytes for " + tupleType.canonicalType + ": 40 < 79", () -> PackedDecoder.decode(tupleType, new byte[40]));
+
+        TupleType staticType = TupleType.parse("(int8,bytes2)");
+        TestUtils.assertThrown(IllegalArgumentException.class, "packed length mismatch: actual != expected: 4 != 3", () -> PackedDecoder.decode(staticType, new byte[4]));
+    }
 }
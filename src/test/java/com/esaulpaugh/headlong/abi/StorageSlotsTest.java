@@ -0,0 +1,95 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.abi;
+
+import com.esaulpaugh.headlong.TestUtils;
+import com.esaulpaugh.headlong.util.Strings;
+import com.joemelsha.crypto.hash.Keccak256;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StorageSlotsTest {
+
+    private static byte[] slotAt(byte[] buffer, int i) {
+        return Arrays.copyOfRange(buffer, i * StorageSlots.SLOT_LEN, (i + 1) * StorageSlots.SLOT_LEN);
+    }
+
+    @Test
+    public void testMapping() throws Throwable {
+        final Random r = TestUtils.seededRandom();
+        assertEquals("ad3228b676f7d3cd4284a5443f17f1962b36e491b30a40b2405849e597ba5fb5",
+                Strings.encode(StorageSlots.mapping(TypeFactory.create("address", null), BigInteger.ZERO, StorageSlots.slot(0L))));
+
+        final TupleType pair = TupleType.parse("(address,uint256)");
+        final byte[] slot = StorageSlots.slot(3L);
+        final BigInteger[] keys = new BigInteger[19];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new BigInteger(160, r);
+        }
+        final byte[] out = new byte[5 + keys.length * StorageSlots.SLOT_LEN];
+        StorageSlots.mapping(TypeFactory.create("address", null), keys, slot, out, 5);
+        final byte[] slots = Arrays.copyOfRange(out, 5, out.length);
+        for (int i = 0; i < keys.length; i++) {
+            assertArrayEquals(Keccak256.hash(pair.encode(Tuple.of(keys[i], BigInteger.valueOf(3L))).array()), slotAt(slots, i));
+        }
+
+        // mapping(address => mapping(bytes4 => bool)) via a second batch over the first batch's output
+        final byte[][] selectors = new byte[keys.length][];
+        for (int i = 0; i < selectors.length; i++) {
+            selectors[i] = TestUtils.randomBytes(4, r);
+        }
+        final byte[] nested = new byte[keys.length * StorageSlots.SLOT_LEN];
+        StorageSlots.mapping(TypeFactory.create("bytes4", null), selectors, slots, 0, nested, 0);
+        final TupleType inner = TupleType.parse("(bytes4,bytes32)");
+        for (int i = 0; i < keys.length; i++) {
+            final byte[] expected = Keccak256.hash(inner.encode(Tuple.of(selectors[i], slotAt(slots, i))).array());
+            assertArrayEquals(expected, slotAt(nested, i));
+            assertArrayEquals(expected, StorageSlots.mapping(TypeFactory.create("bytes4", null), selectors[i], slotAt(slots, i)));
+        }
+
+        // string keys are hashed unpadded
+        final byte[] hello = Strings.decode("hello", Strings.UTF_8);
+        final byte[] preimage = Arrays.copyOf(hello, hello.length + StorageSlots.SLOT_LEN);
+        System.arraycopy(slot, 0, preimage, hello.length, StorageSlots.SLOT_LEN);
+        assertArrayEquals(Keccak256.hash(preimage), StorageSlots.mapping(TypeFactory.create("string", null), "hello", slot));
+
+        TestUtils.assertThrown(IllegalArgumentException.class, "illegal mapping key type: uint256[]", () -> StorageSlots.mapping(TypeFactory.create("uint256[]", null), new BigInteger[0], slot));
+        TestUtils.assertThrown(IllegalArgumentException.class, "exceeds bit limit: 161 > 160", () -> StorageSlots.mapping(TypeFactory.create("address", null), BigInteger.ONE.shiftLeft(160), slot));
+    }
+
+    @Test
+    public void testArrayAndOffset() throws Throwable {
+        final byte[] slot = StorageSlots.slot(2L);
+        final byte[] start = Keccak256.hash(slot);
+        assertArrayEquals(start, StorageSlots.arrayStart(slot));
+        final BigInteger s = new BigInteger(1, start);
+        final BigInteger modulus = BigInteger.ONE.shiftLeft(256);
+        assertEquals(s.add(BigInteger.valueOf(10L * 3)).mod(modulus), new BigInteger(1, StorageSlots.arrayElement(slot, 10L, 3)));
+        assertEquals(s.add(BigInteger.valueOf(7L)).mod(modulus), new BigInteger(1, StorageSlots.offset(start, 7L)));
+        final byte[] max = new byte[StorageSlots.SLOT_LEN];
+        Arrays.fill(max, (byte) 0xff);
+        assertArrayEquals(StorageSlots.slot(0L), StorageSlots.offset(max, 1L));
+
+        TestUtils.assertThrown(IllegalArgumentException.class, "index is negative: -1", () -> StorageSlots.arrayElement(slot, -1L, 1));
+        TestUtils.assertThrown(IllegalArgumentException.class, "slotsPerElement must be positive: 0", () -> StorageSlots.arrayElement(slot, 0L, 0));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.abi;
+
+import com.esaulpaugh.headlong.TestUtils;
+import com.esaulpaugh.headlong.util.Strings;
+import com.joemelsha.crypto.hash.Keccak256;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TypedDataTest {
+
+    private static byte[] keccak(String utf8) {
+        return Keccak256.hash(Strings.decode(utf8, Strings.UTF_8));
+    }
+
+    private static BigInteger address(String hex) {
+        return new BigInteger(hex, 16);
+    }
+
+    @Test
+    public void testMail() throws Throwable {
+        final TypedData typedData = TypedData.fromJson("{" +
+                "\"Person\":[{\"name\":\"name\",\"type\":\"string\"},{\"name\":\"wallet\",\"type\":\"address\"}]," +
+                "\"Mail\":[{\"name\":\"from\",\"type\":\"Person\"},{\"name\":\"to\",\"type\":\"Person\"},{\"name\":\"contents\",\"type\":\"string\"}]" +
+                "}");
+        assertEquals("Mail(Person from,Person to,string contents)Person(string name,address wallet)", typedData.encodeType("Mail"));
+        assertEquals("a0cedeb2dc280ba39b857546d74f5549c3a1d7bdc2dd96bf881f76108e23dac2", Strings.encode(typedData.typeHash("Mail")));
+
+        final byte[] domainSeparator = TypedData.domainSeparator("Ether Mail", "1", BigInteger.ONE, address("CcCCccccCCCCcCCCCCCcCcCccCcCCCcCcccccccC"), null);
+        assertEquals("f2cee375fa42b42143804025fc449deafd50cc031ca257e0b194a650a912090f", Strings.encode(domainSeparator));
+        final byte[] salt = new byte[32];
+        salt[31] = 1;
+        assertArrayEquals(TypedData.parse("EIP712Domain(uint256 chainId,bytes32 salt)").hashStruct("EIP712Domain", Tuple.of(BigInteger.TEN, salt)),
+                TypedData.domainSeparator(null, null, BigInteger.TEN, null, salt));
+        assertArrayEquals(TypedData.parse("EIP712Domain()").hashStruct("EIP712Domain", Tuple.EMPTY),
+                TypedData.domainSeparator(null, null, null, null, null));
+        TestUtils.assertThrown(IllegalArgumentException.class, "EIP712Domain.salt: byte[31] not instanceof byte[32]", () -> TypedData.domainSeparator("x", null, null, null, new byte[31]));
+
+        final Tuple mail = Tuple.of(
+                Tuple.of("Cow", address("CD2a3d9F938E13CD947Ec05AbC7FE734Df8DD826")),
+                Tuple.of("Bob", address("bBbBBBBbbBBBbbbBbbBbbbbBBbBbbbbBbBbbBBbB")),
+                "Hello, Bob!"
+        );
+        assertEquals("c52c0ee5d84264471806290a3f2c4cecfc5490626bf912d01f240d7a274b371e", Strings.encode(typedData.hashStruct("Mail", mail)));
+        assertEquals("be609aee343fb3c4b28e1df9e632fca64fcfaede20f02e86244efddf30957bd2", Strings.encode(typedData.hashTypedData(domainSeparator, "Mail", mail)));
+
+        final TypedData parsed = TypedData.parse("Mail(Person from,Person to,string contents)", "Person(string name,address wallet)");
+        assertArrayEquals(typedData.hashStruct("Mail", mail), parsed.hashStruct("Mail", mail));
+
+        TestUtils.assertThrown(IllegalArgumentException.class, "unknown struct: Letter", () -> typedData.hashStruct("Letter", mail));
+        TestUtils.assertThrown(IllegalArgumentException.class, "Mail.from: Person: member count mismatch: actual != expected: 1 != 2", () -> typedData.hashStruct("Mail", Tuple.of(Tuple.singleton("Cow"), mail.get(1), "")));
+        TestUtils.assertThrown(IllegalArgumentException.class, "illegal member: \"string\" in Person(string)", () -> TypedData.parse("Person(string)"));
+    }
+
+    @Test
+    public void testArrays() {
+        final Random r = TestUtils.seededRandom();
+        final TypedData typedData = TypedData.parse(
+                "Order(address maker,uint256[] amounts,bytes32[2] salts,string[] tags,Item[] items,bytes data,uint8[][] grid)",
+                "Item(uint8 kind,bool flag)"
+        );
+        assertEquals("Order(address maker,uint256[] amounts,bytes32[2] salts,string[] tags,Item[] items,bytes data,uint8[][] grid)Item(uint8 kind,bool flag)",
+                typedData.encodeType("Order"));
+
+        final BigInteger maker = new BigInteger(160, r);
+        final BigInteger[] amounts = new BigInteger[] { new BigInteger(256, r), BigInteger.TEN, BigInteger.ZERO };
+        final byte[][] salts = new byte[][] { TestUtils.randomBytes(32, r), TestUtils.randomBytes(32, r) };
+        final String[] tags = new String[] { "a", "", "long tag long tag long tag long tag" };
+        final Tuple[] items = new Tuple[] { Tuple.of(7, true), Tuple.of(255, false) };
+        final byte[] data = TestUtils.randomBytes(1000, r);
+        final int[][] grid = new int[][] { { 1, 2 }, {}, { 3 } };
+        final Tuple order = Tuple.of(maker, amounts, salts, tags, items, data, grid);
+
+        final byte[] itemTypeHash = keccak("Item(uint8 kind,bool flag)");
+        final ByteBuffer itemHashes = ByteBuffer.allocate(items.length * 32);
+        for (Tuple item : items) {
+            itemHashes.put(Keccak256.hash(concat(itemTypeHash, TupleType.parse("(uint8,bool)").encode(item).array())));
+        }
+        final ByteBuffer tagHashes = ByteBuffer.allocate(tags.length * 32);
+        for (String tag : tags) {
+            tagHashes.put(keccak(tag));
+        }
+        final ByteBuffer gridHashes = ByteBuffer.allocate(grid.length * 32);
+        for (int[] row : grid) {
+            gridHashes.put(Keccak256.hash(TupleType.parse("(uint8[" + row.length + "])").encode(Tuple.singleton(row)).array()));
+        }
+        final byte[] expectedData = concat(
+                TupleType.parse("(address)").encode(Tuple.singleton(maker)).array(),
+                Keccak256.hash(TupleType.parse("(uint256[3])").encode(Tuple.singleton(amounts)).array()),
+                Keccak256.hash(concat(salts[0], salts[1])),
+                Keccak256.hash(tagHashes.array()),
+                Keccak256.hash(itemHashes.array()),
+                Keccak256.hash(data),
+                Keccak256.hash(gridHashes.array())
+        );
+        assertArrayEquals(expectedData, typedData.encodeData("Order", order));
+        assertArrayEquals(Keccak256.hash(concat(typedData.typeHash("Order"), expectedData)), typedData.hashStruct("Order", order));
+    }
+
+    private static byte[] concat(byte[]... arrays) {
+        int len = 0;
+        for (byte[] a : arrays) {
+            len += a.length;
+        }
+        final ByteBuffer bb = ByteBuffer.allocate(len);
+        for (byte[] a : arrays) {
+            bb.put(a);
+        }
+        return bb.array();
+    }
+}
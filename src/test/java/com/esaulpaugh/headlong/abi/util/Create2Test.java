@@ -0,0 +1,83 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.abi.util;
+
+import com.esaulpaugh.headlong.TestUtils;
+import com.esaulpaugh.headlong.util.Strings;
+import com.joemelsha.crypto.hash.Keccak256;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class Create2Test {
+
+    @Test
+    public void testAddress() {
+        // EIP-1014 examples 0 and 4
+        assertEquals("4d1a2e2bb4f88f0250f26ffff098b0b30b26bf38", Strings.encode(Create2.address(
+                new byte[20],
+                new byte[32],
+                Keccak256.hash(new byte[] { 0 })
+        )));
+        assertEquals("60f3f640a8508fc6a86d45df051962668e1e8ac7", Strings.encode(Create2.address(
+                Strings.decode("00000000000000000000000000000000deadbeef"),
+                Strings.decode("00000000000000000000000000000000000000000000000000000000cafebabe"),
+                Keccak256.hash(Strings.decode("deadbeef"))
+        )));
+    }
+
+    @Test
+    public void testSearch() throws Throwable {
+        final byte[] deployer = new byte[20];
+        TestUtils.seededRandom().nextBytes(deployer);
+        final byte[] initCodeHash = Keccak256.hash(new byte[] { 1, 2, 3 });
+        final byte[] baseSalt = new byte[32];
+        baseSalt[0] = 7;
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final Create2.Result result = Create2.search(deployer, initCodeHash, baseSalt, 1L << 24, Create2.hexPrefix("BeE"), pool);
+            assertTrue(result.isFound());
+            final byte[] salt = result.getSalt();
+            assertEquals(7, salt[0]);
+            assertArrayEquals(Create2.address(deployer, salt, initCodeHash), result.getAddress());
+            assertTrue(Strings.encode(result.getAddress()).startsWith("bee"));
+            assertTrue(result.getCandidates() > 0);
+
+            final Create2.Result none = Create2.search(deployer, initCodeHash, baseSalt, 100_000L, (buf, off) -> false, pool);
+            assertFalse(none.isFound());
+            assertNull(none.getSalt());
+            assertEquals(100_000L, none.getCandidates());
+            assertTrue(none.getCandidatesPerSecond() > 0);
+
+            final Create2.Result first = Create2.search(deployer, initCodeHash, baseSalt, 1L, (buf, off) -> true, pool);
+            assertArrayEquals(baseSalt, first.getSalt());
+            assertTrue(Create2.prefix(Create2.address(deployer, baseSalt, initCodeHash)).test(first.getAddress(), 0));
+        } finally {
+            pool.shutdown();
+        }
+
+        TestUtils.assertThrown(IllegalArgumentException.class, "deployer length must be 20 but found 19", () -> Create2.address(new byte[19], baseSalt, initCodeHash));
+        TestUtils.assertThrown(IllegalArgumentException.class, "illegal hex val @ 2", () -> Create2.hexPrefix("abz"));
+        TestUtils.assertThrown(IllegalArgumentException.class, "count is negative: -1", () -> Create2.search(deployer, initCodeHash, baseSalt, -1L, (buf, off) -> true));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+   Copyright 2020 Evan Saulpaugh
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package com.esaulpaugh.headlong.abi.util;
+
+import com.esaulpaugh.headlong.TestUtils;
+import com.esaulpaugh.headlong.abi.Tuple;
+import com.esaulpaugh.headlong.abi.TupleType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class Uint256Test {
+
+    private static final BigInteger MODULUS = BigInteger.ONE.shiftLeft(Uint256.BIT_LENGTH);
+
+    private static BigInteger random(Random r) {
+        return new BigInteger(r.nextInt(Uint256.BIT_LENGTH + 1), r);
+    }
+
+    @Test
+    public void testArithmetic() {
+        final Random r = TestUtils.seededRandom();
+        for (int i = 0; i < 20_000; i++) {
+            final BigInteger a = random(r), b = random(r);
+            final Uint256 ua = Uint256.valueOf(a), ub = Uint256.valueOf(b);
+            assertEquals(a, ua.toBigInteger());
+            assertEquals(a.toString(), ua.toString());
+            assertEquals(a.bitLength(), ua.bitLength());
+            assertEquals(a.longValue(), ua.longValue());
+            assertEquals(a.compareTo(b), ua.compareTo(ub));
+            assertEquals(a.add(b).mod(MODULUS), ua.add(ub).toBigInteger());
+            assertEquals(a.subtract(b).mod(MODULUS), ua.subtract(ub).toBigInteger());
+            assertEquals(a.multiply(b).mod(MODULUS), ua.multiply(ub).toBigInteger());
+            final int n = r.nextInt(Uint256.BIT_LENGTH + 1);
+            assertEquals(a.shiftLeft(n).mod(MODULUS), ua.shiftLeft(n).toBigInteger());
+            assertEquals(a.shiftRight(n), ua.shiftRight(n).toBigInteger());
+            assertEquals(ua, Uint256.valueOf(ua.toBigInteger()));
+            assertEquals(ua.hashCode(), Uint256.valueOf(a).hashCode());
+        }
+        assertEquals(Uint256.ZERO, Uint256.MAX_VALUE.add(Uint256.ONE));
+        assertEquals(Uint256.MAX_VALUE, Uint256.ZERO.subtract(Uint256.ONE));
+        assertEquals(BigInteger.ONE.negate(), Uint256.MAX_VALUE.toSigned());
+        assertEquals(Uint256.MAX_VALUE, Uint256.fromSigned(BigInteger.ONE.negate()));
+        assertEquals(Uint256.ONE.shiftLeft(3), Uint256.ONE.shiftRight(-3));
+        assertEquals(Uint256.ZERO, Uint256.MAX_VALUE.shiftLeft(Integer.MIN_VALUE));
+        assertEquals(Uint256.ZERO, Uint256.MAX_VALUE.shiftRight(Integer.MIN_VALUE));
+        assertEquals(Uint256.ZERO, Uint256.MAX_VALUE.shiftRight(-Uint256.BIT_LENGTH));
+    }
+
+    @Test
+    public void testPut() {
+        final Random r = TestUtils.seededRandom();
+        for (int i = 0; i < 2_000; i++) {
+            final BigInteger a = random(r);
+            final byte[] expected = new byte[Uint256.BYTES];
+            final byte[] mag = a.toByteArray();
+            final int n = Math.min(mag.length, Uint256.BYTES);
+            System.arraycopy(mag, mag.length - n, expected, Uint256.BYTES - n, n);
+            final int len = r.nextInt(Uint256.BYTES + 1);
+            final ByteBuffer bb = ByteBuffer.allocate(len);
+            Uint256.valueOf(a).put(bb, len);
+            assertArrayEquals(Arrays.copyOfRange(expected, Uint256.BYTES - len, Uint256.BYTES), bb.array());
+        }
+    }
+
+    @Test
+    public void testExceptions() throws Throwable {
+        TestUtils.assertThrown(IllegalArgumentException.class, "unsigned value is negative: -1", () -> Uint256.valueOf(-1L));
+        TestUtils.assertThrown(IllegalArgumentException.class, "unsigned has too many bits: 257 > 256", () -> Uint256.valueOf(MODULUS));
+        TestUtils.assertThrown(ArithmeticException.class, "Uint256 out of long range", () -> Uint256.valueOf(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE)).longValueExact());
+        TestUtils.assertThrown(IllegalArgumentException.class, "tuple index 0: exceeds bit limit: 161 > 160", () -> TupleType.parse("(address)").encode(Tuple.singleton(Uint256.ONE.shiftLeft(160))));
+        TestUtils.assertThrown(IllegalArgumentException.class, "class mismatch", () -> TupleType.parse("(int256)").encode(Tuple.singleton(Uint256.ONE)));
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        final Random r = TestUtils.seededRandom();
+        final TupleType tt = TupleType.parse("(uint256,address,uint64[],(uint128[2][])[],int256,uint256[])");
+        final BigInteger u256 = random(r);
+        final BigInteger address = new BigInteger(160, r);
+        final BigInteger[] u64s = new BigInteger[] { new BigInteger(64, r), BigInteger.ZERO };
+        final BigInteger[][] u128s = new BigInteger[][] { new BigInteger[] { new BigInteger(128, r), BigInteger.TEN } };
+        final BigInteger i256 = random(r).shiftRight(1).negate();
+
+        final Tuple bigInts = Tuple.of(u256, address, u64s, new Tuple[] { Tuple.singleton(u128s) }, i256, new BigInteger[0]);
+        final Tuple uints = Tuple.of(
+                Uint256.valueOf(u256),
+                Uint256.valueOf(address),
+                new Uint256[] { Uint256.valueOf(u64s[0]), Uint256.ZERO },
+                new Tuple[] { Tuple.singleton(new Uint256[][] { new Uint256[] { Uint256.valueOf(u128s[0][0]), Uint256.valueOf(10L) } }) },
+                i256,
+                new Uint256[0]
+        );
+
+        final ByteBuffer encoding = tt.encode(bigInts);
+        assertArrayEquals(encoding.array(), tt.encode(uints).array());
+        assertArrayEquals(tt.encodePacked(bigInts).array(), tt.encodePacked(uints).array());
+
+        assertEquals(bigInts, tt.decode((ByteBuffer) encoding.flip()));
+        final Tuple decoded = tt.decode((ByteBuffer) encoding.flip(), true);
+        assertEquals(uints, decoded);
+        assertTrue(decoded.get(3) instanceof Tuple[]);
+        assertTrue(((Tuple[]) decoded.get(3))[0].get(0) instanceof Uint256[][]);
+        assertTrue(decoded.get(4) instanceof BigInteger);
+    }
+}
@@ -247,4 +247,93 @@ public class KeccakTest {
         System.out.println(label + (elapsed / 1_000_000.0) + "ms");
         return elapsed;
     }
+
+    @Test
+    public void testKeccak256() throws Throwable {
+        final Random r = TestUtils.seededRandom();
+        final WrappedKeccak reference = new WrappedKeccak(256);
+        final byte[] buffer = new byte[600];
+        final byte[] out = new byte[Keccak256.DIGEST_LEN + 7];
+        for (int i = 0; i < 2_000; i++) {
+            r.nextBytes(buffer);
+            final int off = r.nextInt(50);
+            final int len = r.nextInt(buffer.length - off);
+            reference.update(buffer, off, len);
+            final byte[] expected = reference.digest();
+
+            final int outOff = r.nextInt(8);
+            Keccak256.hash(buffer, off, len, out, outOff);
+            assertArrayEquals(expected, Arrays.copyOfRange(out, outOff, outOff + Keccak256.DIGEST_LEN));
+
+            Keccak256.hash(buffer, off, len, out, 0, SELECTOR_LEN);
+            assertArrayEquals(Arrays.copyOf(expected, SELECTOR_LEN), Arrays.copyOf(out, SELECTOR_LEN));
+
+            final ByteBuffer direct = ByteBuffer.allocateDirect(len);
+            direct.put(buffer, off, len).flip();
+            final ByteBuffer directOut = ByteBuffer.allocateDirect(Keccak256.DIGEST_LEN);
+            Keccak256.hash(direct, directOut);
+            assertEquals(len, direct.position());
+            final byte[] fromDirect = new byte[Keccak256.DIGEST_LEN];
+            ((ByteBuffer) directOut.flip()).get(fromDirect);
+            assertArrayEquals(expected, fromDirect);
+
+            final ByteBuffer heapOut = ByteBuffer.allocate(Keccak256.DIGEST_LEN);
+            Keccak256.hash(ByteBuffer.wrap(buffer, off, len), heapOut);
+            assertArrayEquals(expected, heapOut.array());
+        }
+        assertEquals("c5d2460186f7233c927e7db2dcc703c0e500b653ca82273b7bfad8045d85a470", Strings.encode(Keccak256.hash(new byte[0])));
+
+        TestUtils.assertThrown(IndexOutOfBoundsException.class, "off: 1, len: 32, array length: 32", () -> Keccak256.hash(buffer, 0, 1, new byte[32], 1));
+        TestUtils.assertThrown(IllegalArgumentException.class, "outLen exceeds digest length: 33 > 32", () -> Keccak256.hash(buffer, 0, 1, new byte[40], 0, 33));
+        TestUtils.assertThrown(IllegalArgumentException.class, "output buffer too small: 31 < 32", () -> Keccak256.hash(ByteBuffer.wrap(buffer), ByteBuffer.allocate(31)));
+    }
+
+    @Test
+    public void testHashAll() throws Throwable {
+        final Random r = TestUtils.seededRandom();
+        for (int len : new int[] { 0, 1, 20, 64, 135, 136, 137, 300 }) {
+            for (int count : new int[] { 0, 1, 7, 8, 9, 21 }) {
+                final int off = r.nextInt(5), outOff = r.nextInt(5);
+                final byte[] in = new byte[off + len * count];
+                r.nextBytes(in);
+                final byte[] out = new byte[outOff + Keccak256.DIGEST_LEN * count];
+                Keccak256.hashAll(in, off, len, count, out, outOff);
+                for (int i = 0; i < count; i++) {
+                    final byte[] expected = Keccak256.hash(Arrays.copyOfRange(in, off + i * len, off + (i + 1) * len));
+                    final int start = outOff + i * Keccak256.DIGEST_LEN;
+                    assertArrayEquals(expected, Arrays.copyOfRange(out, start, start + Keccak256.DIGEST_LEN));
+                }
+            }
+        }
+        TestUtils.assertThrown(IllegalArgumentException.class, "count is negative: -1", () -> Keccak256.hashAll(new byte[0], 0, 0, -1, new byte[0], 0));
+        TestUtils.assertThrown(IndexOutOfBoundsException.class, "off: 0, len: 96, array length: 64", () -> Keccak256.hashAll(new byte[100], 0, 20, 3, new byte[64], 0));
+    }
+
+    @Test
+    public void testSnapshot() throws Throwable {
+        final Random r = TestUtils.seededRandom();
+        final Keccak k = new Keccak(256);
+        for (int prefixLen : new int[] { 0, 5, 85, 136, 200, 272 }) {
+            final byte[] prefix = new byte[prefixLen];
+            r.nextBytes(prefix);
+            k.update(prefix);
+            final Keccak.Snapshot snapshot = k.snapshot();
+            for (int i = 0; i < 10; i++) {
+                final byte[] suffix = new byte[r.nextInt(300)];
+                r.nextBytes(suffix);
+                k.restore(snapshot);
+                k.update(suffix);
+                final byte[] whole = new byte[prefixLen + suffix.length];
+                System.arraycopy(prefix, 0, whole, 0, prefixLen);
+                System.arraycopy(suffix, 0, whole, prefixLen, suffix.length);
+                assertArrayEquals(Keccak256.hash(whole), k.digest());
+            }
+        }
+        final Keccak.Snapshot empty = k.snapshot();
+        k.update(new byte[] { 1, 2, 3 });
+        k.restore(empty);
+        assertArrayEquals(Keccak256.hash(new byte[0]), k.digest());
+
+        TestUtils.assertThrown(IllegalArgumentException.class, "snapshot rate mismatch: 1088 != 576", () -> new Keccak(512).restore(empty));
+    }
 }